@@ -0,0 +1,192 @@
+package com.db.dsg.batch;
+
+import com.db.dsg.dtos.LoanAccrual;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+import org.springframework.batch.item.database.Order;
+import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Daily interest accrual over every disbursed loan. A first step records each loan's balance
+ * and rate for the day; the recorded loan ids are split into ranges that run as parallel chunk
+ * steps (paging reader, JDBC batch writer); a final step rolls the day's accruals up into one
+ * ProfitLossRecord per group and drops the recorded balances. Launched with an
+ * {@code accrualDate} parameter, so a failed day restarts from its last committed chunks, on
+ * the balances recorded for it, and a finished day cannot run twice.
+ */
+@Configuration
+public class InterestAccrualJobConfig {
+
+    public static final String JOB_NAME = "interestAccrualJob";
+    public static final String WORKER_STEP = "interestAccrualWorkerStep";
+    public static final String ACCRUAL_DATE = "accrualDate";
+
+    static final String ACCRUAL_DESCRIPTION = "Interest accrual";
+
+    // Annual rate in basis points to a daily fraction, actual/365
+    private static final BigDecimal DAILY_BPS_DIVISOR = BigDecimal.valueOf(3_650_000L);
+
+    @Bean
+    public Job interestAccrualJob(JobRepository jobRepository, Step interestBalanceStep, Step interestAccrualStep,
+                                  Step interestProfitLossStep) {
+        return new JobBuilder(JOB_NAME, jobRepository)
+                .start(interestBalanceStep)
+                .next(interestAccrualStep)
+                .next(interestProfitLossStep)
+                .build();
+    }
+
+    // One statement, so the day's balances are recorded completely or not at all. Once this step
+    // completed a restart skips it; if it never did, only the day that just ended can still be
+    // recorded, because the live balances no longer stand for an older one
+    @Bean
+    public Step interestBalanceStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                    DataSource dataSource,
+                                    @Value("${dsg.loan.default-annual-rate-bps:1200}") int defaultRateBps) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        return new StepBuilder("interestBalanceStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    LocalDate date = (LocalDate) chunkContext.getStepContext().getJobParameters().get(ACCRUAL_DATE);
+                    if (date.isBefore(LocalDate.now().minusDays(1))) {
+                        throw new IllegalStateException("Balances for " + date + " were never recorded");
+                    }
+                    int loans = jdbc.update("insert into loan_accrual_balance (loan_id, group_id, accrual_date, " +
+                            "principal_balance, rate_bps) " +
+                            "select l.id, m.group_id, ?, l.remaining_balance, coalesce(l.interest_rate_bps, ?) " +
+                            "from loan l join member m on m.id = l.member_id " +
+                            "where l.status = 'DISBURSED' and l.disbursement_date < ? and l.remaining_balance > 0 " +
+                            "on conflict (accrual_date, loan_id) do nothing", date, defaultRateBps, date);
+                    contribution.incrementWriteCount(loans);
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public LoanIdRangePartitioner loanIdRangePartitioner(DataSource dataSource,
+                                                         @Value("#{jobParameters['accrualDate']}") LocalDate accrualDate) {
+        return new LoanIdRangePartitioner(new JdbcTemplate(dataSource), accrualDate);
+    }
+
+    @Bean
+    public Step interestAccrualStep(JobRepository jobRepository, Step interestAccrualWorkerStep,
+                                    LoanIdRangePartitioner loanIdRangePartitioner,
+                                    @Value("${dsg.interest.accrual.grid-size:8}") int gridSize,
+                                    @Value("${dsg.interest.accrual.threads:6}") int threads) {
+        // Not a bean: an Executor bean would replace Boot's default application task executor
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("interest-accrual-");
+        executor.setConcurrencyLimit(threads);
+        return new StepBuilder("interestAccrualStep", jobRepository)
+                .partitioner(WORKER_STEP, loanIdRangePartitioner)
+                .step(interestAccrualWorkerStep)
+                .gridSize(gridSize)
+                .taskExecutor(executor)
+                .build();
+    }
+
+    @Bean
+    public Step interestAccrualWorkerStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                          JdbcPagingItemReader<LoanAccrual> accrualReader,
+                                          JdbcBatchItemWriter<LoanAccrual> accrualWriter,
+                                          @Value("${dsg.interest.accrual.chunk-size:1000}") int chunkSize) {
+        return new StepBuilder(WORKER_STEP, jobRepository)
+                .<LoanAccrual, LoanAccrual>chunk(chunkSize, transactionManager)
+                .reader(accrualReader)
+                .processor(accrualProcessor())
+                .writer(accrualWriter)
+                .build();
+    }
+
+    // Reads the balances recorded for the day, never the live loans
+    @Bean
+    @StepScope
+    public JdbcPagingItemReader<LoanAccrual> accrualReader(DataSource dataSource,
+                                                           @Value("#{stepExecutionContext['minId']}") Long minId,
+                                                           @Value("#{stepExecutionContext['maxId']}") Long maxId,
+                                                           @Value("#{jobParameters['accrualDate']}") LocalDate accrualDate,
+                                                           @Value("${dsg.interest.accrual.chunk-size:1000}") int pageSize) {
+        return new JdbcPagingItemReaderBuilder<LoanAccrual>()
+                .name("accrualReader")
+                .dataSource(dataSource)
+                .selectClause("select loan_id, group_id, principal_balance, rate_bps")
+                .fromClause("from loan_accrual_balance")
+                .whereClause("where accrual_date = :accrualDate and loan_id between :minId and :maxId")
+                .sortKeys(Map.of("loan_id", Order.ASCENDING))
+                .parameterValues(Map.of("minId", minId, "maxId", maxId, "accrualDate", accrualDate))
+                .pageSize(pageSize)
+                .rowMapper((rs, rowNum) -> new LoanAccrual(rs.getLong("loan_id"), rs.getLong("group_id"), accrualDate,
+                        rs.getBigDecimal("principal_balance"), rs.getInt("rate_bps"), null))
+                .build();
+    }
+
+    // Loans that accrue nothing (zero rate) are filtered out
+    private ItemProcessor<LoanAccrual, LoanAccrual> accrualProcessor() {
+        return accrual -> {
+            BigDecimal interest = accrual.getPrincipalBalance()
+                    .multiply(BigDecimal.valueOf(accrual.getRateBps()))
+                    .divide(DAILY_BPS_DIVISOR, 4, RoundingMode.HALF_UP);
+            if (interest.signum() == 0) {
+                return null;
+            }
+            accrual.setInterest(interest);
+            return accrual;
+        };
+    }
+
+    // A chunk replayed after a crash finds its rows already there and skips them
+    @Bean
+    public JdbcBatchItemWriter<LoanAccrual> accrualWriter(DataSource dataSource) {
+        return new JdbcBatchItemWriterBuilder<LoanAccrual>()
+                .dataSource(dataSource)
+                .sql("insert into loan_interest_accrual (loan_id, group_id, accrual_date, principal_balance, rate_bps, interest) " +
+                        "values (:loanId, :groupId, :accrualDate, :principalBalance, :rateBps, :interest) " +
+                        "on conflict (loan_id, accrual_date) do nothing")
+                .beanMapped()
+                .assertUpdates(false)
+                .build();
+    }
+
+    // One set-based statement per day instead of per-chunk increments, which would contend on
+    // the same group rows across partitions. Replacing the day's records keeps a restart exact.
+    // The recorded balances go in the same transaction: the day cannot run again once it completes
+    @Bean
+    public Step interestProfitLossStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                       DataSource dataSource) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        return new StepBuilder("interestProfitLossStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    LocalDate date = (LocalDate) chunkContext.getStepContext().getJobParameters().get(ACCRUAL_DATE);
+                    jdbc.update("delete from profit_loss_record where description = ? and date = ?",
+                            ACCRUAL_DESCRIPTION, date);
+                    int groups = jdbc.update("insert into profit_loss_record (group_id, interest_accrued, description, date) " +
+                            "select group_id, sum(interest), ?, accrual_date from loan_interest_accrual " +
+                            "where accrual_date = ? group by group_id, accrual_date", ACCRUAL_DESCRIPTION, date);
+                    jdbc.update("delete from loan_accrual_balance where accrual_date = ?", date);
+                    contribution.incrementWriteCount(groups);
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.db.dsg.batch;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Splits the ids of the loans whose balance was recorded for the accrual day into contiguous
+ * ranges, one per partition. Ranges are equal in width, not in row count; ids are
+ * sequence-assigned so that is close enough.
+ */
+public class LoanIdRangePartitioner implements Partitioner {
+
+    static final String MIN_ID = "minId";
+    static final String MAX_ID = "maxId";
+
+    private final JdbcTemplate jdbc;
+    private final LocalDate accrualDate;
+
+    public LoanIdRangePartitioner(JdbcTemplate jdbc, LocalDate accrualDate) {
+        this.jdbc = jdbc;
+        this.accrualDate = accrualDate;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, Long> range = jdbc.queryForObject(
+                "select min(loan_id) as min_id, max(loan_id) as max_id from loan_accrual_balance where accrual_date = ?",
+                (rs, n) -> {
+                    Map<String, Long> r = new HashMap<>();
+                    r.put(MIN_ID, rs.getObject("min_id", Long.class));
+                    r.put(MAX_ID, rs.getObject("max_id", Long.class));
+                    return r;
+                }, accrualDate);
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        if (range == null || range.get(MIN_ID) == null) {
+            return partitions;
+        }
+        long min = range.get(MIN_ID);
+        long max = range.get(MAX_ID);
+        long width = Math.max(1, (max - min) / gridSize + 1);
+        int i = 0;
+        for (long start = min; start <= max; start += width, i++) {
+            ExecutionContext context = new ExecutionContext();
+            context.putLong(MIN_ID, start);
+            context.putLong(MAX_ID, Math.min(max, start + width - 1));
+            partitions.put("partition" + i, context);
+        }
+        return partitions;
+    }
+}
@@ -1,7 +1,11 @@
 package com.db.dsg.controller;
 
+import com.db.dsg.model.ExportFormat;
 import com.db.dsg.service.ExportService;
+import com.db.dsg.service.ParallelExportService;
+import com.db.dsg.service.ReportCacheService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -10,8 +14,10 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -19,49 +25,72 @@ import java.io.IOException;
 public class AdminExportController {
 
     private final ExportService exportService;
+    private final ParallelExportService parallelExportService;
+    private final ReportCacheService reportCacheService;
 
     @GetMapping("/savings/export")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> exportAllSavings(@RequestParam(defaultValue = "csv") String format) throws IOException, IOException {
-        byte[] data;
-        String contentType, fileName;
-
-        if (format.equalsIgnoreCase("pdf")) {
-            data = exportService.exportAllSavingsAsPDF();
-            contentType = "application/pdf";
-            fileName = "all_savings_report.pdf";
-        } else {
-            data = exportService.exportAllSavingsAsCSV();
-            contentType = "text/csv";
-            fileName = "all_savings_report.csv";
-        }
+    public ResponseEntity<StreamingResponseBody> exportAllSavings(@RequestParam(defaultValue = "csv") String format,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ExportFormat f = ExportFormat.fromParam(format);
+        StreamingResponseBody body = f == ExportFormat.PDF
+                ? out -> exportService.writeAllSavingsPDF(from, to, out)
+                : out -> exportService.writeCompressed(f, "all_savings_report.csv",
+                        o -> exportService.writeAllSavingsCSV(from, to, o), out);
 
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
-                .contentType(MediaType.parseMediaType(contentType))
-                .body(data);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=all_savings_report." + f.getExtension())
+                .contentType(MediaType.parseMediaType(f.getContentType()))
+                .body(body);
     }
 
     @GetMapping("/loans/repayments/export")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> exportAllRepayments(@RequestParam(defaultValue = "csv") String format) throws IOException {
-        byte[] data;
+    public ResponseEntity<StreamingResponseBody> exportAllRepayments(@RequestParam(defaultValue = "csv") String format,
+                                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ExportFormat f = ExportFormat.fromParam(format);
+        StreamingResponseBody body = f == ExportFormat.PDF
+                ? out -> exportService.writeAllRepaymentsPDF(from, to, out)
+                : out -> exportService.writeCompressed(f, "all_loan_repayments.csv",
+                        o -> exportService.writeAllRepaymentsCSV(from, to, o), out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=all_loan_repayments." + f.getExtension())
+                .contentType(MediaType.parseMediaType(f.getContentType()))
+                .body(body);
+    }
+
+    // Sharded by group id; format=zip gives one file per group
+    @GetMapping("/savings/export/parallel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAllSavingsParallel(@RequestParam(defaultValue = "csv") String format,
+                                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        StreamingResponseBody body;
         String contentType, fileName;
 
-        if (format.equalsIgnoreCase("pdf")) {
-            data = exportService.exportAllRepaymentsAsPDF();
-            contentType = "application/pdf";
-            fileName = "all_loan_repayments.pdf";
+        if (format.equalsIgnoreCase("zip")) {
+            body = out -> parallelExportService.writeAllSavingsZip(from, to, out);
+            contentType = "application/zip";
+            fileName = "all_savings_by_group.zip";
         } else {
-            data = exportService.exportAllRepaymentsAsCSV();
+            body = out -> parallelExportService.writeAllSavingsCSV(from, to, out);
             contentType = "text/csv";
-            fileName = "all_loan_repayments.csv";
+            fileName = "all_savings_report.csv";
         }
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
                 .contentType(MediaType.parseMediaType(contentType))
-                .body(data);
+                .body(body);
+    }
+
+    @GetMapping("/report-cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Long>> reportCacheStats() {
+        return ResponseEntity.ok(reportCacheService.getStats());
     }
 
 }
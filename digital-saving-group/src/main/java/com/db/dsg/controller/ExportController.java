@@ -1,6 +1,8 @@
 package com.db.dsg.controller;
 
+import com.db.dsg.model.ExportFormat;
 import com.db.dsg.service.ExportService;
+import com.db.dsg.service.ReportCacheService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
@@ -10,6 +12,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 
@@ -18,56 +21,147 @@ import java.time.LocalDate;
 @RequiredArgsConstructor
 public class ExportController {
 
+    private static final String WATERMARK_HEADER = "X-Export-Watermark";
+
     private final ExportService exportService;
+    private final ReportCacheService reportCache;
+
+    // ✅ format = csv | csv.gz | zip | pdf, compressed on the fly
+    @GetMapping("/savings")
+    public ResponseEntity<StreamingResponseBody> exportSavings(@RequestParam Long groupId,
+                                                               @RequestParam(defaultValue = "csv") String format,
+                                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ExportFormat f = ExportFormat.fromParam(format);
+        ExportService.ReportWriter report = f == ExportFormat.PDF
+                ? out -> exportService.writeSavingsPDF(groupId, from, to, out)
+                : out -> exportService.writeCompressed(f, "savings.csv",
+                        o -> exportService.writeSavingsCSV(groupId, from, to, o), out);
+        ReportCacheService.Key key = new ReportCacheService.Key("savings", groupId, from, to, f);
+        return buildResponse("savings." + f.getExtension(), f, out -> reportCache.write(key, report, out));
+    }
+
+    @GetMapping("/repayments")
+    public ResponseEntity<StreamingResponseBody> exportRepayments(@RequestParam Long groupId,
+                                                                  @RequestParam(defaultValue = "csv") String format,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ExportFormat f = ExportFormat.fromParam(format);
+        ExportService.ReportWriter report = f == ExportFormat.PDF
+                ? out -> exportService.writeRepaymentsPDF(groupId, from, to, out)
+                : out -> exportService.writeCompressed(f, "repayments.csv",
+                        o -> exportService.writeRepaymentsCSV(groupId, from, to, o), out);
+        ReportCacheService.Key key = new ReportCacheService.Key("repayments", groupId, from, to, f);
+        return buildResponse("repayments." + f.getExtension(), f, out -> reportCache.write(key, report, out));
+    }
+
+    // ✅ Rows added since the last sync; pass the returned X-Export-Watermark as fromTx next time
+    @GetMapping("/savings/delta")
+    public ResponseEntity<StreamingResponseBody> exportSavingsDelta(@RequestParam(defaultValue = "0") long fromTx,
+                                                                    @RequestParam(required = false) Long groupId,
+                                                                    @RequestParam(defaultValue = "csv") String format) {
+        ExportFormat f = ExportFormat.fromParam(format);
+        if (f == ExportFormat.PDF) {
+            throw new IllegalArgumentException("Delta exports are CSV only");
+        }
+        long watermark = Math.max(fromTx, exportService.currentWatermark());
+        StreamingResponseBody body = out -> exportService.writeCompressed(f, "savings_delta.csv",
+                o -> exportService.writeSavingsDeltaCSV(groupId, fromTx, watermark, o), out);
+        return buildDeltaResponse("savings_delta." + f.getExtension(), f, watermark, body);
+    }
+
+    @GetMapping("/repayments/delta")
+    public ResponseEntity<StreamingResponseBody> exportRepaymentsDelta(@RequestParam(defaultValue = "0") long fromTx,
+                                                                       @RequestParam(required = false) Long groupId,
+                                                                       @RequestParam(defaultValue = "csv") String format) {
+        ExportFormat f = ExportFormat.fromParam(format);
+        if (f == ExportFormat.PDF) {
+            throw new IllegalArgumentException("Delta exports are CSV only");
+        }
+        long watermark = Math.max(fromTx, exportService.currentWatermark());
+        StreamingResponseBody body = out -> exportService.writeCompressed(f, "repayments_delta.csv",
+                o -> exportService.writeRepaymentsDeltaCSV(groupId, fromTx, watermark, o), out);
+        return buildDeltaResponse("repayments_delta." + f.getExtension(), f, watermark, body);
+    }
+
+    // ✅ Savings, repayments and P&L of one group in a single ZIP
+    @GetMapping("/bundle")
+    public ResponseEntity<StreamingResponseBody> exportGroupBundle(@RequestParam Long groupId,
+                                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return buildResponse("group_" + groupId + "_bundle.zip", ExportFormat.ZIP,
+                out -> exportService.writeGroupBundle(groupId, from, to, out));
+    }
 
     @GetMapping("/savings/csv")
-    public ResponseEntity<byte[]> exportSavingsAsCSV(@RequestParam Long groupId,
-                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
-        return buildCSVResponse("savings.csv", exportService.exportSavingsAsCSV(groupId, from, to));
+    public ResponseEntity<StreamingResponseBody> exportSavingsAsCSV(@RequestParam Long groupId,
+                                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return buildCSVResponse("savings.csv", out -> exportService.writeSavingsCSV(groupId, from, to, out));
     }
 
     @GetMapping("/repayments/csv")
-    public ResponseEntity<byte[]> exportRepaymentsAsCSV(@RequestParam Long groupId,
-                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
-        return buildCSVResponse("repayments.csv", exportService.exportRepaymentsAsCSV(groupId, from, to));
+    public ResponseEntity<StreamingResponseBody> exportRepaymentsAsCSV(@RequestParam Long groupId,
+                                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return buildCSVResponse("repayments.csv", out -> exportService.writeRepaymentsCSV(groupId, from, to, out));
     }
 
     @GetMapping("/savings/pdf")
-    public ResponseEntity<byte[]> exportSavingsAsPDF(@RequestParam Long groupId,
-                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) throws Exception {
-        return buildPDFResponse("savings.pdf", exportService.exportSavingsAsPDF(groupId, from, to));
+    public ResponseEntity<StreamingResponseBody> exportSavingsAsPDF(@RequestParam Long groupId,
+                                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ReportCacheService.Key key = new ReportCacheService.Key("savings", groupId, from, to, ExportFormat.PDF);
+        return buildPDFResponse("savings.pdf", out -> reportCache.write(key,
+                o -> exportService.writeSavingsPDF(groupId, from, to, o), out));
     }
 
     @GetMapping("/repayments/pdf")
-    public ResponseEntity<byte[]> exportRepaymentsAsPDF(@RequestParam Long groupId,
-                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) throws Exception {
-        return buildPDFResponse("repayments.pdf", exportService.exportRepaymentsAsPDF(groupId, from, to));
+    public ResponseEntity<StreamingResponseBody> exportRepaymentsAsPDF(@RequestParam Long groupId,
+                                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ReportCacheService.Key key = new ReportCacheService.Key("repayments", groupId, from, to, ExportFormat.PDF);
+        return buildPDFResponse("repayments.pdf", out -> reportCache.write(key,
+                o -> exportService.writeRepaymentsPDF(groupId, from, to, o), out));
     }
 
     @GetMapping("/all-savings/csv")
-    public ResponseEntity<byte[]> exportAllSavingsAsCSV(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
-        return buildCSVResponse("all_savings.csv", exportService.exportAllSavingsAsCSV(from, to));
+    public ResponseEntity<StreamingResponseBody> exportAllSavingsAsCSV(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return buildCSVResponse("all_savings.csv", out -> exportService.writeAllSavingsCSV(from, to, out));
     }
 
     @GetMapping("/all-savings/pdf")
-    public ResponseEntity<byte[]> exportAllSavingsAsPDF(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) throws Exception {
-        return buildPDFResponse("all_savings.pdf", exportService.exportAllSavingsAsPDF(from, to));
+    public ResponseEntity<StreamingResponseBody> exportAllSavingsAsPDF(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return buildPDFResponse("all_savings.pdf", out -> exportService.writeAllSavingsPDF(from, to, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> buildResponse(String filename, ExportFormat format, StreamingResponseBody data) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .body(data);
+    }
+
+    private ResponseEntity<StreamingResponseBody> buildDeltaResponse(String filename, ExportFormat format, long watermark,
+                                                                     StreamingResponseBody data) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(WATERMARK_HEADER, String.valueOf(watermark))
+                .header(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, WATERMARK_HEADER)
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .body(data);
     }
 
-    private ResponseEntity<byte[]> buildCSVResponse(String filename, byte[] data) {
+    private ResponseEntity<StreamingResponseBody> buildCSVResponse(String filename, StreamingResponseBody data) {
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
                 .contentType(MediaType.TEXT_PLAIN)
                 .body(data);
     }
 
-    private ResponseEntity<byte[]> buildPDFResponse(String filename, byte[] data) {
+    private ResponseEntity<StreamingResponseBody> buildPDFResponse(String filename, StreamingResponseBody data) {
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
                 .contentType(MediaType.APPLICATION_PDF)
@@ -0,0 +1,62 @@
+package com.db.dsg.controller;
+
+import com.db.dsg.dtos.ExportJob;
+import com.db.dsg.model.ExportFormat;
+import com.db.dsg.service.ExportJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/export/jobs")
+@RequiredArgsConstructor
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    // ✅ Queue an export of one group
+    @PostMapping
+    public ResponseEntity<ExportJob> submit(@RequestParam ExportJob.ReportType reportType,
+                                            @RequestParam(defaultValue = "csv") String format,
+                                            @RequestParam Long groupId,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ExportJob job = exportJobService.submit(reportType, ExportFormat.fromParam(format), groupId, from, to);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    // ✅ Queue an all-groups export
+    @PostMapping("/all")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ExportJob> submitAllGroups(@RequestParam ExportJob.ReportType reportType,
+                                                     @RequestParam(defaultValue = "csv") String format,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ExportJob job = exportJobService.submit(reportType, ExportFormat.fromParam(format), null, from, to);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    // ✅ Poll status and progress
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ExportJob> getStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(exportJobService.getJob(jobId));
+    }
+
+    // ✅ Download the spooled file (served from disk, supports range requests)
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<Resource> download(@PathVariable String jobId) {
+        ExportJob job = exportJobService.getFinishedJob(jobId);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.getFileName() + "\"")
+                .contentType(MediaType.parseMediaType(job.getFormat().getContentType()))
+                .body(new FileSystemResource(job.getFile()));
+    }
+}
@@ -0,0 +1,26 @@
+package com.db.dsg.controller;
+
+import com.db.dsg.dtos.FundReconciliationReport;
+import com.db.dsg.service.FundReconciliationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/fund-reconciliation")
+@RequiredArgsConstructor
+public class FundReconciliationController {
+
+    private final FundReconciliationService reconciliationService;
+
+    // ✅ Recompute all group balances from source records; repair=true books the drift as adjustments
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FundReconciliationReport> reconcile(@RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(reconciliationService.reconcile(repair));
+    }
+}
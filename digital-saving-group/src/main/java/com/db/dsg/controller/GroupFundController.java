@@ -4,11 +4,13 @@ import com.db.dsg.model.GroupFund;
 import com.db.dsg.repository.GroupRepository;
 import com.db.dsg.service.GroupFundService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/group-funds")
@@ -26,9 +28,14 @@ public class GroupFundController {
         return ResponseEntity.ok(fund);
     }
 
-    // ✅ Get balance only
+    // ✅ Get balance only, optionally as of a past instant
     @GetMapping("/{groupId}/balance")
-    public ResponseEntity<BigDecimal> getBalance(@PathVariable Long groupId) {
+    public ResponseEntity<BigDecimal> getBalance(@PathVariable Long groupId,
+                                                 @RequestParam(required = false)
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        if (at != null) {
+            return ResponseEntity.ok(groupFundService.getBalanceAt(groupId, at));
+        }
         return ResponseEntity.ok(groupFundService.getBalance(groupId));
     }
 
@@ -0,0 +1,53 @@
+package com.db.dsg.controller;
+
+import com.db.dsg.model.ImportJob;
+import com.db.dsg.model.ImportRowError;
+import com.db.dsg.service.CsvImportService;
+import com.db.dsg.util.SecurityUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/imports")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('PRESIDENT', 'TREASURER')")
+public class ImportJobController {
+
+    private final CsvImportService csvImportService;
+
+    // ✅ Upload a CSV of historical deposits or loans for the current group
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJob> submit(@RequestParam ImportJob.Type type,
+                                            @RequestParam MultipartFile file) throws IOException {
+        ImportJob job = csvImportService.submit(type, SecurityUtil.getCurrentGroupId(), file,
+                SecurityUtil.getCurrentUser().getUsername());
+        return ResponseEntity.accepted().body(job);
+    }
+
+    // ✅ Poll progress and counts
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJob> getStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(csvImportService.getJob(jobId, SecurityUtil.getCurrentGroupId()));
+    }
+
+    // ✅ Rejected rows, paged by row number
+    @GetMapping("/{jobId}/errors")
+    public ResponseEntity<List<ImportRowError>> getErrors(@PathVariable String jobId,
+                                                          @RequestParam(defaultValue = "0") long afterRow,
+                                                          @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(csvImportService.getErrors(jobId, SecurityUtil.getCurrentGroupId(), afterRow, size));
+    }
+
+    // ✅ Continue a failed or interrupted import from its last checkpoint
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<ImportJob> resume(@PathVariable String jobId) {
+        return ResponseEntity.accepted().body(csvImportService.resume(jobId, SecurityUtil.getCurrentGroupId()));
+    }
+}
@@ -0,0 +1,30 @@
+package com.db.dsg.controller;
+
+import com.db.dsg.dtos.InterestAccrualRun;
+import com.db.dsg.service.InterestAccrualService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/admin/interest-accrual")
+@RequiredArgsConstructor
+public class InterestAccrualController {
+
+    private final InterestAccrualService accrualService;
+
+    // ✅ Accrue yesterday, or resume a failed accrual of any day; runs to completion before returning
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<InterestAccrualRun> accrue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(accrualService.accrue(date));
+    }
+}
@@ -1,17 +1,27 @@
 package com.db.dsg.controller;
 
+import com.db.dsg.dtos.BulkLoanRequest;
+import com.db.dsg.dtos.BulkLoanResult;
+import com.db.dsg.dtos.InstallmentDue;
+import com.db.dsg.dtos.KeysetPage;
+import com.db.dsg.dtos.ListingOrder;
+import com.db.dsg.dtos.LoanListItem;
 import com.db.dsg.model.Loan;
 import com.db.dsg.model.LoanAuditLog;
+import com.db.dsg.model.LoanStatus;
 import com.db.dsg.model.Member;
 import com.db.dsg.model.MemberUser;
 import com.db.dsg.service.LoanApplicationService;
+import com.db.dsg.service.LoanListingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
 
@@ -22,6 +32,7 @@ import java.util.List;
 public class LoanApplicationController {
 
     private final LoanApplicationService loanService;
+    private final LoanListingService listingService;
 
     /**
      * MEMBER applies for a loan
@@ -31,10 +42,11 @@ public class LoanApplicationController {
     public ResponseEntity<Loan> applyLoan(
             @RequestParam BigDecimal amount,
             @RequestParam(required = false) String purpose,
+            @RequestParam(required = false) Integer termMonths,
             @AuthenticationPrincipal MemberUser memberUser
     ) {
         Member member = memberUser.getMember();
-        Loan loan = loanService.applyLoan(member, amount, purpose);
+        Loan loan = loanService.applyLoan(member, amount, purpose, termMonths);
         return ResponseEntity.ok(loan);
     }
 
@@ -74,6 +86,42 @@ public class LoanApplicationController {
         return ResponseEntity.ok(loanService.rejectLoan(loanId, user));
     }
 
+    /**
+     * PRESIDENT approves many loans at once; the response has one result per loan
+     */
+    @PostMapping("/bulk/approve")
+    @PreAuthorize("hasRole('PRESIDENT')")
+    public ResponseEntity<List<BulkLoanResult>> bulkApprove(
+            @RequestBody BulkLoanRequest request,
+            @AuthenticationPrincipal MemberUser user
+    ) {
+        return ResponseEntity.ok(loanService.bulkApprove(request.getLoanIds(), user));
+    }
+
+    /**
+     * TREASURER disburses many loans at once
+     */
+    @PostMapping("/bulk/disburse")
+    @PreAuthorize("hasRole('TREASURER')")
+    public ResponseEntity<List<BulkLoanResult>> bulkDisburse(
+            @RequestBody BulkLoanRequest request,
+            @AuthenticationPrincipal MemberUser user
+    ) {
+        return ResponseEntity.ok(loanService.bulkDisburse(request.getLoanIds(), user));
+    }
+
+    /**
+     * PRESIDENT or TREASURER rejects many loans at once
+     */
+    @PostMapping("/bulk/reject")
+    @PreAuthorize("hasAnyRole('PRESIDENT', 'TREASURER')")
+    public ResponseEntity<List<BulkLoanResult>> bulkReject(
+            @RequestBody BulkLoanRequest request,
+            @AuthenticationPrincipal MemberUser user
+    ) {
+        return ResponseEntity.ok(loanService.bulkReject(request.getLoanIds(), user));
+    }
+
     @PostMapping("/{loanId}/repay")
     @PreAuthorize("hasRole('MEMBER')")
     public ResponseEntity<Loan> repayLoan(
@@ -102,6 +150,40 @@ public class LoanApplicationController {
         return ResponseEntity.ok(loanService.getLoansByGroupId(groupId));
     }
 
+    /**
+     * MEMBER pages through own loans, newest first unless order=OLDEST
+     */
+    @GetMapping("/my/page")
+    @PreAuthorize("hasRole('MEMBER')")
+    public ResponseEntity<KeysetPage<LoanListItem>> getMyLoansPage(
+            @RequestParam(required = false) LoanStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "NEWEST") ListingOrder order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal MemberUser user
+    ) {
+        return ResponseEntity.ok(listingService.getMemberLoans(user.getMember().getId(), status, from, to, order, cursor, size));
+    }
+
+    /**
+     * PRESIDENT or TREASURER pages through a group's loans, filtered by status and application date
+     */
+    @GetMapping("/group/{groupId}/page")
+    @PreAuthorize("hasAnyRole('PRESIDENT', 'TREASURER', 'SUPER_ADMIN')")
+    public ResponseEntity<KeysetPage<LoanListItem>> getGroupLoansPage(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) LoanStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "NEWEST") ListingOrder order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(listingService.getGroupLoans(groupId, status, from, to, order, cursor, size));
+    }
+
     /**
      * Get audit trail for a loan
      */
@@ -111,6 +193,24 @@ public class LoanApplicationController {
         return ResponseEntity.ok(loanService.getAuditLogs(loanId));
     }
 
+    /**
+     * Repayment schedule of a loan, one row per instalment; a MEMBER only sees own loans
+     */
+    @GetMapping("/{loanId}/schedule")
+    @PreAuthorize("hasAnyRole('MEMBER', 'PRESIDENT', 'TREASURER', 'SUPER_ADMIN')")
+    public ResponseEntity<List<InstallmentDue>> getSchedule(
+            @PathVariable Long loanId,
+            @AuthenticationPrincipal MemberUser user
+    ) {
+        return ResponseEntity.ok(loanService.getSchedule(loanId, user));
+    }
+
+    @GetMapping("/group/{groupId}/due-this-week")
+    @PreAuthorize("hasAnyRole('PRESIDENT', 'TREASURER', 'SUPER_ADMIN')")
+    public ResponseEntity<List<InstallmentDue>> getDueThisWeek(@PathVariable Long groupId) {
+        return ResponseEntity.ok(loanService.getDueThisWeek(groupId));
+    }
+
     @GetMapping("/group/{groupId}/repayments")
     @PreAuthorize("hasAnyRole('PRESIDENT', 'TREASURER', 'SUPER_ADMIN')")
     public ResponseEntity<List<Loan>> getMonthlyRepayments(
@@ -0,0 +1,68 @@
+package com.db.dsg.controller;
+
+import com.db.dsg.dtos.KeysetPage;
+import com.db.dsg.dtos.ListingOrder;
+import com.db.dsg.dtos.RepaymentListItem;
+import com.db.dsg.model.MemberUser;
+import com.db.dsg.service.LoanListingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/loan-repayments")
+@RequiredArgsConstructor
+public class LoanRepaymentController {
+
+    private final LoanListingService listingService;
+
+    /**
+     * PRESIDENT or TREASURER pages through a group's repayments, newest first unless order=OLDEST
+     */
+    @GetMapping("/group/{groupId}")
+    @PreAuthorize("hasAnyRole('PRESIDENT', 'TREASURER', 'SUPER_ADMIN')")
+    public ResponseEntity<KeysetPage<RepaymentListItem>> getGroupRepayments(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "NEWEST") ListingOrder order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(listingService.getGroupRepayments(groupId, from, to, order, cursor, size));
+    }
+
+    @GetMapping("/member/{memberId}")
+    @PreAuthorize("hasAnyRole('PRESIDENT', 'TREASURER', 'SUPER_ADMIN')")
+    public ResponseEntity<KeysetPage<RepaymentListItem>> getMemberRepayments(
+            @PathVariable Long memberId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "NEWEST") ListingOrder order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(listingService.getMemberRepayments(memberId, from, to, order, cursor, size));
+    }
+
+    /**
+     * MEMBER pages through own repayments
+     */
+    @GetMapping("/my")
+    @PreAuthorize("hasRole('MEMBER')")
+    public ResponseEntity<KeysetPage<RepaymentListItem>> getMyRepayments(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "NEWEST") ListingOrder order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal MemberUser user
+    ) {
+        return ResponseEntity.ok(listingService.getMemberRepayments(user.getMember().getId(), from, to, order, cursor, size));
+    }
+}
@@ -0,0 +1,63 @@
+package com.db.dsg.controller;
+
+import com.db.dsg.dtos.LoanEligibility;
+import com.db.dsg.model.MemberExposure;
+import com.db.dsg.model.MemberUser;
+import com.db.dsg.service.MemberExposureService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+
+@RestController
+@RequestMapping("/api/member-exposure")
+@RequiredArgsConstructor
+public class MemberExposureController {
+
+    private final MemberExposureService exposureService;
+
+    /**
+     * Savings, outstanding loans and repayment record of a member
+     */
+    @GetMapping("/{memberId}")
+    @PreAuthorize("hasAnyRole('PRESIDENT', 'TREASURER', 'SUPER_ADMIN')")
+    public ResponseEntity<MemberExposure> getExposure(@PathVariable Long memberId) {
+        return ResponseEntity.ok(exposureService.getExposure(memberId));
+    }
+
+    /**
+     * Whether a member may take a loan (of the given amount, if any) under the configured rules
+     */
+    @GetMapping("/{memberId}/eligibility")
+    @PreAuthorize("hasAnyRole('PRESIDENT', 'TREASURER', 'SUPER_ADMIN')")
+    public ResponseEntity<LoanEligibility> checkEligibility(
+            @PathVariable Long memberId,
+            @RequestParam(required = false) BigDecimal amount
+    ) {
+        return ResponseEntity.ok(exposureService.checkEligibility(memberId, amount));
+    }
+
+    /**
+     * MEMBER checks how much they can borrow
+     */
+    @GetMapping("/me/eligibility")
+    @PreAuthorize("hasRole('MEMBER')")
+    public ResponseEntity<LoanEligibility> checkMyEligibility(
+            @RequestParam(required = false) BigDecimal amount,
+            @AuthenticationPrincipal MemberUser user
+    ) {
+        return ResponseEntity.ok(exposureService.checkEligibility(user.getMember().getId(), amount));
+    }
+
+    /**
+     * Recompute all exposure rows from deposits, loans and repayments
+     */
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> rebuild() {
+        return ResponseEntity.ok(exposureService.rebuildAll());
+    }
+}
@@ -0,0 +1,35 @@
+package com.db.dsg.controller;
+
+import com.db.dsg.dtos.PortfolioAtRisk;
+import com.db.dsg.service.PortfolioAgingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/portfolio-at-risk")
+@RequiredArgsConstructor
+public class PortfolioAtRiskController {
+
+    private final PortfolioAgingService agingService;
+
+    // ✅ PAR30/60/90 of one group from its aging buckets
+    @GetMapping("/group/{groupId}")
+    @PreAuthorize("hasAnyRole('PRESIDENT', 'TREASURER', 'SUPER_ADMIN')")
+    public ResponseEntity<PortfolioAtRisk> getGroupPortfolioAtRisk(@PathVariable Long groupId) {
+        return ResponseEntity.ok(agingService.getGroupPortfolioAtRisk(groupId));
+    }
+
+    // ✅ Federation dashboard: the all-groups total first (groupId null), then one entry per group
+    @GetMapping("/federation")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<List<PortfolioAtRisk>> getFederationPortfolioAtRisk() {
+        return ResponseEntity.ok(agingService.getFederationPortfolioAtRisk());
+    }
+}
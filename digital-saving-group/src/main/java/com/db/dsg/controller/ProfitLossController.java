@@ -1,5 +1,6 @@
 package com.db.dsg.controller;
 
+import com.db.dsg.dtos.ProfitLossSummary;
 import com.db.dsg.service.ProfitLossService;
 import com.db.dsg.util.SecurityUtil;
 import lombok.RequiredArgsConstructor;
@@ -22,4 +23,11 @@ public class ProfitLossController {
         Long groupId = SecurityUtil.getCurrentGroupId();
         return ResponseEntity.ok(pnlService.getGroupProfitLoss(groupId));
     }
+
+    // ✅ Totals of principal paid, interest earned, interest accrued and loss
+    @GetMapping("/group/summary")
+    @PreAuthorize("hasAnyRole('GROUP_ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ProfitLossSummary> getGroupPnlSummary() {
+        return ResponseEntity.ok(pnlService.getGroupProfitLossSummary(SecurityUtil.getCurrentGroupId()));
+    }
 }
@@ -1,5 +1,8 @@
 package com.db.dsg.controller;
 
+import com.db.dsg.dtos.BulkDepositRequest;
+import com.db.dsg.dtos.BulkDepositResult;
+import com.db.dsg.dtos.MonthlySavingPoint;
 import com.db.dsg.dtos.SavingDepositRequest;
 import com.db.dsg.dtos.SavingSummaryResponse;
 import com.db.dsg.model.Member;
@@ -27,6 +30,13 @@ public class SavingDepositController {
         return ResponseEntity.ok(savingDepositService.save(req, member));
     }
 
+    // ✅ Treasurer records a whole meeting's collection for their group at once
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('TREASURER')")
+    public ResponseEntity<BulkDepositResult> bulkDeposit(@RequestBody BulkDepositRequest req) {
+        return ResponseEntity.ok(savingDepositService.saveBulk(req, SecurityUtil.getCurrentGroupId()));
+    }
+
     @GetMapping("/group")
     @PreAuthorize("hasAnyRole('GROUP_ADMIN', 'SUPER_ADMIN')")
     public ResponseEntity<List<SavingDeposit>> groupDeposits() {
@@ -53,6 +63,35 @@ public class SavingDepositController {
         return ResponseEntity.ok(savingDepositService.getMemberDepositHistory(memberId));
     }
 
+    // ✅ Monthly totals of the current group for the last N months (default 24), one point per month
+    @GetMapping("/group/monthly")
+    @PreAuthorize("hasAnyRole('PRESIDENT', 'TREASURER', 'GROUP_ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<List<MonthlySavingPoint>> groupMonthly(@RequestParam(required = false) Integer months) {
+        Long groupId = SecurityUtil.getCurrentGroupId();
+        return ResponseEntity.ok(savingDepositService.getGroupMonthlySavings(groupId, months));
+    }
+
+    @GetMapping("/member/{memberId}/monthly")
+    @PreAuthorize("hasAnyRole('PRESIDENT', 'TREASURER', 'GROUP_ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<List<MonthlySavingPoint>> memberMonthly(@PathVariable Long memberId,
+                                                                  @RequestParam(required = false) Integer months) {
+        return ResponseEntity.ok(savingDepositService.getMemberMonthlySavings(memberId, months));
+    }
+
+    @GetMapping("/me/monthly")
+    @PreAuthorize("hasRole('MEMBER')")
+    public ResponseEntity<List<MonthlySavingPoint>> myMonthly(@RequestParam(required = false) Integer months) {
+        Member member = SecurityUtil.getCurrentUser().getMember();
+        return ResponseEntity.ok(savingDepositService.getMemberMonthlySavings(member.getId(), months));
+    }
+
+    // ✅ Recompute the monthly rollups from all deposits
+    @PostMapping("/monthly/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> rebuildMonthly() {
+        return ResponseEntity.ok(savingDepositService.rebuildMonthlySavings());
+    }
+
     @GetMapping("/me/track")
     @PreAuthorize("hasRole('MEMBER')")
     public ResponseEntity<List<SavingDeposit>> myTrack() {
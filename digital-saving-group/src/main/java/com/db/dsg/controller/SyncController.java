@@ -0,0 +1,31 @@
+package com.db.dsg.controller;
+
+import com.db.dsg.dtos.SyncResponse;
+import com.db.dsg.model.MemberUser;
+import com.db.dsg.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+
+    // ✅ Offline client: everything on the first call, then only what changed since the returned token.
+    // Call again with the new token while hasMore is set.
+    @GetMapping
+    @PreAuthorize("hasAnyRole('MEMBER', 'PRESIDENT', 'TREASURER', 'GROUP_ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<SyncResponse> sync(@RequestParam(required = false) String token,
+                                             @RequestParam(required = false) Integer size,
+                                             @AuthenticationPrincipal MemberUser user) {
+        return ResponseEntity.ok(syncService.sync(user, token, size));
+    }
+}
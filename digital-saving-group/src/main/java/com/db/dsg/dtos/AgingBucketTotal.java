@@ -0,0 +1,18 @@
+package com.db.dsg.dtos;
+
+import com.db.dsg.model.AgingBucket;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AgingBucketTotal {
+    private Long groupId;
+    private AgingBucket bucket;
+    private long loanCount;
+    private BigDecimal outstanding;
+}
@@ -0,0 +1,16 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDepositEntry {
+    private Long memberId;
+    private BigDecimal amount;
+    private String remarks;
+}
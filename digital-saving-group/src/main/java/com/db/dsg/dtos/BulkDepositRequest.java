@@ -0,0 +1,17 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// One meeting's collection; date defaults to today
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDepositRequest {
+    private LocalDate date;
+    private List<BulkDepositEntry> deposits;
+}
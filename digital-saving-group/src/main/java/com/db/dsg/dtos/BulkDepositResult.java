@@ -0,0 +1,19 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDepositResult {
+    private Long groupId;
+    private LocalDate date;
+    private int depositCount;
+    private int memberCount;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,10 @@
+package com.db.dsg.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkLoanRequest {
+    private List<Long> loanIds;
+}
@@ -0,0 +1,24 @@
+package com.db.dsg.dtos;
+
+import com.db.dsg.model.LoanStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkLoanResult {
+    private Long loanId;
+    private boolean success;
+    private LoanStatus status;
+    private String error;
+
+    public static BulkLoanResult ok(Long loanId, LoanStatus status) {
+        return new BulkLoanResult(loanId, true, status, null);
+    }
+
+    public static BulkLoanResult failed(Long loanId, LoanStatus status, String error) {
+        return new BulkLoanResult(loanId, false, status, error);
+    }
+}
@@ -0,0 +1,45 @@
+package com.db.dsg.dtos;
+
+import com.db.dsg.model.ExportFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class ExportJob {
+    private String id; // also serves as the download token
+    private ReportType reportType;
+    private ExportFormat format;
+    private Long groupId; // null for all-groups exports
+    private LocalDate from;
+    private LocalDate to;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile long bytesWritten;
+    private String error;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime finishedAt;
+    private LocalDateTime expiresAt;
+
+    @JsonIgnore
+    private Path file;
+
+    public String getFileName() {
+        return reportType.name().toLowerCase() + (groupId != null ? "_" + groupId : "_all")
+                + "_" + from + "_" + to + "." + format.getExtension();
+    }
+
+    public enum ReportType {
+        SAVINGS, REPAYMENTS
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+}
@@ -0,0 +1,18 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FundDrift {
+    private Long groupId;
+    private BigDecimal expectedBalance;
+    private BigDecimal actualBalance;
+    private BigDecimal drift;
+    private boolean repaired;
+}
@@ -0,0 +1,16 @@
+package com.db.dsg.dtos;
+
+import com.db.dsg.model.FundEntryType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FundEntryTotal {
+    private FundEntryType type;
+    private BigDecimal amount;
+}
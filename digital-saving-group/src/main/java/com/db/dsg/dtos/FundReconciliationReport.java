@@ -0,0 +1,22 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FundReconciliationReport {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private int groupsChecked;
+    private BigDecimal totalAbsoluteDrift;
+    private List<FundDrift> drifted;
+    // Groups with write-behind deltas still buffered while they were checked; compared on the next run
+    private List<Long> skippedGroupIds;
+}
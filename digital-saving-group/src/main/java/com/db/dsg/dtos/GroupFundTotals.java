@@ -0,0 +1,17 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GroupFundTotals {
+    private Long groupId;
+    private BigDecimal balance;
+    private BigDecimal profit;
+    private BigDecimal loss;
+}
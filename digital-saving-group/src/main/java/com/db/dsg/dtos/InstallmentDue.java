@@ -0,0 +1,29 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InstallmentDue {
+    private Long loanId;
+    private String memberName;
+    private int number;
+    private LocalDate dueDate;
+    private BigDecimal principalDue;
+    private BigDecimal interestDue;
+    private BigDecimal outstanding;
+    private boolean settled;
+
+    // JPQL constructor expression: amounts arrive in paise
+    public InstallmentDue(Long loanId, String memberName, int number, LocalDate dueDate,
+                          long principalDue, long interestDue, long principalPaid, long interestPaid, boolean settled) {
+        this(loanId, memberName, number, dueDate, BigDecimal.valueOf(principalDue, 2), BigDecimal.valueOf(interestDue, 2),
+                BigDecimal.valueOf(principalDue + interestDue - principalPaid - interestPaid, 2), settled);
+    }
+}
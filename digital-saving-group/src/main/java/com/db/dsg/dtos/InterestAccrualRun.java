@@ -0,0 +1,20 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InterestAccrualRun {
+    private Long executionId;
+    private LocalDate accrualDate;
+    private String status;
+    private long loansAccrued;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
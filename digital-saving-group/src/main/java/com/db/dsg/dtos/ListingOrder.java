@@ -0,0 +1,7 @@
+package com.db.dsg.dtos;
+
+// Sort order of keyset listings: by date, ties broken by id in the same direction
+public enum ListingOrder {
+    NEWEST,
+    OLDEST
+}
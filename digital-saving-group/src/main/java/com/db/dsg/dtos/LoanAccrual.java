@@ -0,0 +1,21 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Row flowing through the interest-accrual job: read as a loan, written as a LoanInterestAccrual
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanAccrual {
+    private Long loanId;
+    private Long groupId;
+    private LocalDate accrualDate;
+    private BigDecimal principalBalance;
+    private int rateBps;
+    private BigDecimal interest;
+}
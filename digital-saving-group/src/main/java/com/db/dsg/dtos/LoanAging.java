@@ -0,0 +1,24 @@
+package com.db.dsg.dtos;
+
+import com.db.dsg.model.AgingBucket;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// A disbursed loan as the aging roll-forward sees it; oldestOpenDueDate is null for loans without a schedule
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanAging {
+    private Long loanId;
+    private Long memberId;
+    private Long groupId;
+    private long version;
+    private BigDecimal remainingBalance;
+    private AgingBucket agingBucket;
+    private LocalDate disbursementDate;
+    private LocalDate oldestOpenDueDate;
+}
@@ -0,0 +1,22 @@
+package com.db.dsg.dtos;
+
+import com.db.dsg.model.MemberExposure;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanEligibility {
+    private Long memberId;
+    private boolean eligible;
+    private BigDecimal maxLoanAmount;
+    private BigDecimal requestedAmount;
+    // Rules the member fails; empty when eligible
+    private List<String> reasons;
+    private MemberExposure exposure;
+}
@@ -0,0 +1,22 @@
+package com.db.dsg.dtos;
+
+import com.db.dsg.model.LoanStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanExportRow {
+    private String memberName;
+    private String groupName;
+    private BigDecimal amount;
+    private BigDecimal remainingBalance;
+    private LoanStatus status;
+    private LocalDate disbursementDate;
+    private LocalDate repaymentDate;
+}
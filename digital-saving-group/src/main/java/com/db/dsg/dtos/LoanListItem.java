@@ -0,0 +1,25 @@
+package com.db.dsg.dtos;
+
+import com.db.dsg.model.LoanStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanListItem {
+    private Long id;
+    private Long memberId;
+    private String memberName;
+    private BigDecimal amount;
+    private BigDecimal remainingBalance;
+    private LoanStatus status;
+    private String purpose;
+    private LocalDate applicationDate;
+    private LocalDate disbursementDate;
+    private LocalDate repaymentDate;
+}
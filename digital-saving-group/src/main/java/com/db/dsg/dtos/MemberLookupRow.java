@@ -0,0 +1,14 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MemberLookupRow {
+    private Long id;
+    private String name;
+    private String phone;
+}
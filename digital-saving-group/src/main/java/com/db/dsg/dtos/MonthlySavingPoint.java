@@ -0,0 +1,23 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MonthlySavingPoint {
+    private YearMonth month;
+    private BigDecimal totalDeposited;
+    private long depositCount;
+
+    // JPQL constructor expression over the rollup tables
+    public MonthlySavingPoint(LocalDate monthStart, BigDecimal totalDeposited, long depositCount) {
+        this(YearMonth.from(monthStart), totalDeposited, depositCount);
+    }
+}
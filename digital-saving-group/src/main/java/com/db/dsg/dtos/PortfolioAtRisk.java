@@ -0,0 +1,51 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Aging buckets of one group (or of all groups when {@code groupId} is null) with the
+ * PAR30/60/90 figures derived from them: loans and outstanding principal past that many days.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PortfolioAtRisk {
+    private Long groupId;
+    private List<AgingBucketTotal> buckets;
+    private long loanCount;
+    private BigDecimal outstanding;
+    private long par30Loans;
+    private BigDecimal par30Outstanding;
+    private long par60Loans;
+    private BigDecimal par60Outstanding;
+    private long par90Loans;
+    private BigDecimal par90Outstanding;
+
+    public static PortfolioAtRisk of(Long groupId, List<AgingBucketTotal> buckets) {
+        PortfolioAtRisk par = new PortfolioAtRisk(groupId, buckets, 0, BigDecimal.ZERO, 0, BigDecimal.ZERO,
+                0, BigDecimal.ZERO, 0, BigDecimal.ZERO);
+        for (AgingBucketTotal total : buckets) {
+            int days = total.getBucket().getMinDaysPastDue();
+            par.loanCount += total.getLoanCount();
+            par.outstanding = par.outstanding.add(total.getOutstanding());
+            if (days > 30) {
+                par.par30Loans += total.getLoanCount();
+                par.par30Outstanding = par.par30Outstanding.add(total.getOutstanding());
+            }
+            if (days > 60) {
+                par.par60Loans += total.getLoanCount();
+                par.par60Outstanding = par.par60Outstanding.add(total.getOutstanding());
+            }
+            if (days > 90) {
+                par.par90Loans += total.getLoanCount();
+                par.par90Outstanding = par.par90Outstanding.add(total.getOutstanding());
+            }
+        }
+        return par;
+    }
+}
@@ -0,0 +1,18 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Interest accrued (earned on paper, day by day) is kept apart from interest collected on repayment
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProfitLossSummary {
+    private BigDecimal totalPrincipalPaid;
+    private BigDecimal totalInterestEarned;
+    private BigDecimal totalInterestAccrued;
+    private BigDecimal totalLoss;
+}
@@ -0,0 +1,20 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RepaymentListItem {
+    private Long id;
+    private Long loanId;
+    private Long memberId;
+    private String memberName;
+    private BigDecimal amount;
+    private LocalDate date;
+}
@@ -0,0 +1,21 @@
+package com.db.dsg.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SavingExportRow {
+    private Long id;
+    private String memberName;
+    private Long groupId;
+    private String groupName;
+    private BigDecimal amount;
+    private LocalDate date;
+    private String remarks;
+}
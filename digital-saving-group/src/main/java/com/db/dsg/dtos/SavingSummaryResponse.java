@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Data
 @AllArgsConstructor
@@ -12,4 +13,5 @@ import java.math.BigDecimal;
 public class SavingSummaryResponse {
     private BigDecimal totalDeposited;
     private Long numberOfDeposits;
+    private LocalDate lastDepositDate;
 }
@@ -0,0 +1,14 @@
+package com.db.dsg.dtos;
+
+import com.db.dsg.model.ChangeLog;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncDeletion {
+    private ChangeLog.EntityType type;
+    private Long id;
+}
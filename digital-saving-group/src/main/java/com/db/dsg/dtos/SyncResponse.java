@@ -0,0 +1,30 @@
+package com.db.dsg.dtos;
+
+import com.db.dsg.model.Loan;
+import com.db.dsg.model.LoanRepayment;
+import com.db.dsg.model.Meeting;
+import com.db.dsg.model.Poll;
+import com.db.dsg.model.SavingDeposit;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Records created or updated since the request's token, in their current state; full is set when
+// there was no token and the lists hold everything, which the client should replace its copy with
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncResponse {
+    private String token;
+    private boolean hasMore;
+    private boolean full;
+    private List<SavingDeposit> deposits = new ArrayList<>();
+    private List<Loan> loans = new ArrayList<>();
+    private List<LoanRepayment> repayments = new ArrayList<>();
+    private List<Meeting> meetings = new ArrayList<>();
+    private List<Poll> polls = new ArrayList<>();
+    private List<SyncDeletion> deleted = new ArrayList<>();
+}
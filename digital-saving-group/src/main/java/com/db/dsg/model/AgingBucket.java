@@ -0,0 +1,33 @@
+package com.db.dsg.model;
+
+/**
+ * Days past due of a disbursed loan's oldest unpaid instalment. PAR30 is everything from
+ * {@link #DAYS_31_60} up, PAR60 from {@link #DAYS_61_90}, PAR90 is {@link #OVER_90}.
+ */
+public enum AgingBucket {
+    CURRENT(0),
+    DAYS_1_30(1),
+    DAYS_31_60(31),
+    DAYS_61_90(61),
+    OVER_90(91);
+
+    private final int minDaysPastDue;
+
+    AgingBucket(int minDaysPastDue) {
+        this.minDaysPastDue = minDaysPastDue;
+    }
+
+    public int getMinDaysPastDue() {
+        return minDaysPastDue;
+    }
+
+    public static AgingBucket of(long daysPastDue) {
+        AgingBucket[] buckets = values();
+        for (int i = buckets.length - 1; i > 0; i--) {
+            if (daysPastDue >= buckets[i].minDaysPastDue) {
+                return buckets[i];
+            }
+        }
+        return CURRENT;
+    }
+}
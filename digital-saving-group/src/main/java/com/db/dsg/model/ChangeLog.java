@@ -0,0 +1,55 @@
+package com.db.dsg.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One create, update or delete of a synced record, written in the same transaction as the
+ * change itself (see {@code ChangeLogService}). {@code txId} is the writing transaction's id,
+ * which lets a reader tell when every change below a given point has committed.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(indexes = @Index(name = "idx_change_log_group_tx", columnList = "group_id, tx_id, id"))
+public class ChangeLog {
+
+    public enum EntityType { DEPOSIT, LOAN, REPAYMENT, MEETING, POLL }
+
+    public enum Op { CREATED, UPDATED, DELETED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    // Owner of member-scoped records (deposits, loans, repayments); null for group-wide ones
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EntityType entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Op op;
+
+    // PostgreSQL 13+: 64-bit transaction id of the writer
+    @Column(name = "tx_id", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default cast(cast(pg_current_xact_id() as text) as bigint)")
+    private Long txId;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,33 @@
+package com.db.dsg.model;
+
+public enum ExportFormat {
+    CSV("csv", "text/csv"),
+    CSV_GZ("csv.gz", "application/gzip"),
+    PDF("pdf", "application/pdf"),
+    ZIP("zip", "application/zip");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static ExportFormat fromParam(String format) {
+        for (ExportFormat f : values()) {
+            if (f.extension.equalsIgnoreCase(format)) {
+                return f;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + format);
+    }
+}
@@ -0,0 +1,5 @@
+package com.db.dsg.model;
+
+public enum FundEntryType {
+    DEPOSIT, DISBURSEMENT, REPAYMENT, PROFIT, LOSS, ADJUSTMENT
+}
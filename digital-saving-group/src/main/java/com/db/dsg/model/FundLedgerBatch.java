@@ -0,0 +1,33 @@
+package com.db.dsg.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a write-behind journal segment as applied to the ledger. Inserted in the same
+ * transaction as the segment's entries, so the unique batch id keeps a replayed segment
+ * from being applied twice.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_fund_ledger_batch_id", columnNames = "batch_id"))
+public class FundLedgerBatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "batch_id", nullable = false, length = 36)
+    private String batchId;
+
+    private int entryCount;
+
+    @Column(nullable = false)
+    private LocalDateTime appliedAt;
+}
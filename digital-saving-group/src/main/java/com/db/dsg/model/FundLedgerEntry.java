@@ -0,0 +1,50 @@
+package com.db.dsg.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only movement on a group fund. Entries are never updated apart from being stamped
+ * with the snapshot that folded them into the {@link GroupFund} row.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_fund_ledger_group_snapshot", columnList = "group_id, snapshot_id"),
+        @Index(name = "idx_fund_ledger_group_created", columnList = "group_id, created_at")
+})
+public class FundLedgerEntry {
+
+    // Pooled sequence so inserts can be JDBC-batched (IDENTITY disables batching)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fund_ledger_entry_seq")
+    @SequenceGenerator(name = "fund_ledger_entry_seq", sequenceName = "fund_ledger_entry_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private FundEntryType type;
+
+    // Signed effect on the balance: credits positive, debits negative
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    private String description;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Null until a snapshot folds the entry into the fund row
+    private Long snapshotId;
+}
@@ -0,0 +1,39 @@
+package com.db.dsg.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fund totals right after a batch of ledger entries was folded into the {@link GroupFund} row.
+ * Every entry folded by this or an earlier snapshot was created at or before {@code takenAt}.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(indexes = @Index(name = "idx_fund_snapshot_group_taken", columnList = "group_id, taken_at"))
+public class FundSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    private BigDecimal balance;
+
+    private BigDecimal profit;
+
+    private BigDecimal loss;
+
+    private int entryCount;
+
+    private LocalDateTime takenAt;
+}
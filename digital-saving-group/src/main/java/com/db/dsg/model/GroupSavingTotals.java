@@ -0,0 +1,32 @@
+package com.db.dsg.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running deposit totals of a group, updated in the deposit's transaction. Per-member totals
+ * live on {@link MemberExposure}.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GroupSavingTotals {
+
+    @Id
+    private Long groupId;
+
+    private BigDecimal totalDeposited;
+
+    private long depositCount;
+
+    private LocalDate lastDepositDate;
+
+    private LocalDateTime updatedAt;
+}
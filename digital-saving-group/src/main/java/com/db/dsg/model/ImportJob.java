@@ -0,0 +1,72 @@
+package com.db.dsg.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A CSV import and its checkpoint. {@code rowsProcessed} advances in the same transaction as
+ * each chunk of imported rows, so a resumed import skips exactly the rows already written.
+ * {@code contentHash} is the SHA-256 of the uploaded file; a group accepts each file once per type.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_import_job_content",
+        columnNames = {"group_id", "type", "content_hash"}))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportJob {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private Long groupId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private String fileName;
+
+    @JsonIgnore
+    @Column(length = 64)
+    private String contentHash;
+
+    // Uploaded file, kept until the import is done so it can be resumed
+    @JsonIgnore
+    private String spoolPath;
+
+    // Data rows (header excluded) handled so far, imported or failed
+    private long rowsProcessed;
+
+    private long rowsImported;
+
+    private long rowsFailed;
+
+    @Column(length = 1000)
+    private String error;
+
+    private String createdBy;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime finishedAt;
+
+    public enum Type {
+        DEPOSITS, LOANS
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED, INTERRUPTED
+    }
+}
@@ -0,0 +1,30 @@
+package com.db.dsg.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(indexes = @Index(name = "idx_import_error_job_row", columnList = "job_id, row_number"))
+public class ImportRowError {
+
+    // Pooled sequence so a chunk's errors are batch-inserted with its rows
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_row_error_seq")
+    @SequenceGenerator(name = "import_row_error_seq", sequenceName = "import_row_error_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false, length = 36)
+    private String jobId;
+
+    // 1-based data row, header excluded
+    @Column(name = "row_number", nullable = false)
+    private long rowNumber;
+
+    @Column(length = 500)
+    private String message;
+}
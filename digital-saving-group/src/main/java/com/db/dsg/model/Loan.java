@@ -12,6 +12,12 @@ import java.time.LocalDate;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_loan_member_status", columnList = "member_id, status"),
+        @Index(name = "idx_loan_member_applied", columnList = "member_id, application_date, id"),
+        @Index(name = "idx_loan_group_applied", columnList = "group_id, application_date, id"),
+        @Index(name = "idx_loan_group_status_applied", columnList = "group_id, status, application_date, id")
+})
 public class Loan {
     @Id
     @GeneratedValue
@@ -21,6 +27,10 @@ public class Loan {
     @JoinColumn(name = "member_id")
     private Member member;
 
+    // Copy of member.group.id so group listings page over one index without joining members
+    @Column(name = "group_id")
+    private Long groupId;
+
     private BigDecimal amount;
 
     private BigDecimal remainingBalance;
@@ -37,4 +47,25 @@ public class Loan {
     private LocalDate disbursementDate;
 
     private LocalDate repaymentDate;
+
+    // Null on loans applied for before schedules existed; filled with the defaults at disbursement
+    private Integer interestRateBps;
+
+    private Integer termMonths;
+
+    // Bucket this loan is counted in while DISBURSED, null otherwise (see PortfolioAgingService)
+    @Enumerated(EnumType.STRING)
+    private AgingBucket agingBucket;
+
+    // Optimistic lock for concurrent transitions; the column default covers rows created before it existed
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private long version;
+
+    @PrePersist
+    void copyGroupId() {
+        if (groupId == null && member != null) {
+            groupId = member.getGroup().getId();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.db.dsg.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A disbursed loan's balance and rate as recorded for one accrual day, by the first step of the
+ * interest-accrual job. The day is accrued from these rows, not from the live loan, so a failed
+ * day can be resumed later without picking up balances from after it. The rows are deleted
+ * when the day completes.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_accrual_balance_loan_date", columnNames = {"accrual_date", "loan_id"}))
+public class LoanAccrualBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "loan_id", nullable = false)
+    private Long loanId;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "accrual_date", nullable = false)
+    private LocalDate accrualDate;
+
+    @Column(nullable = false)
+    private BigDecimal principalBalance;
+
+    // The loan's rate, or the default rate at the time the balance was recorded
+    private int rateBps;
+}
@@ -11,10 +11,14 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = @Index(name = "idx_loan_audit_log_loan", columnList = "loan_id, timestamp"))
 public class LoanAuditLog {
 
+    // Pooled sequence so bulk workflows can batch-insert their logs (IDENTITY disables batching).
+    // Moved past the ids of rows written before the switch by SequenceAlignmentService
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_audit_log_seq")
+    @SequenceGenerator(name = "loan_audit_log_seq", sequenceName = "loan_audit_log_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -26,4 +30,8 @@ public class LoanAuditLog {
     private String performedBy;
     private LocalDateTime timestamp;
     private String description;
+
+    // Assigned when the entry is journalled; lets a replay skip entries that already reached the table
+    @Column(unique = true, length = 36)
+    private String eventId;
 }
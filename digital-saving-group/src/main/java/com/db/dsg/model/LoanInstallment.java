@@ -0,0 +1,60 @@
+package com.db.dsg.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One row of a loan's repayment schedule. Amounts are integer paise. The group id is copied
+ * from the loan so due-date lookups per group need no joins.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_installment_group_due", columnList = "group_id, settled, due_date"),
+        @Index(name = "idx_installment_loan", columnList = "loan_id, number")
+})
+public class LoanInstallment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_installment_seq")
+    @SequenceGenerator(name = "loan_installment_seq", sequenceName = "loan_installment_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "loan_id", nullable = false)
+    private Loan loan;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    private int number;
+
+    @Column(nullable = false)
+    private LocalDate dueDate;
+
+    private long principalDue;
+
+    private long interestDue;
+
+    private long principalPaid;
+
+    private long interestPaid;
+
+    private boolean settled;
+
+    private LocalDate settledDate;
+
+    public long outstandingInterest() {
+        return interestDue - interestPaid;
+    }
+
+    public long outstandingPrincipal() {
+        return principalDue - principalPaid;
+    }
+}
@@ -0,0 +1,43 @@
+package com.db.dsg.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One day of interest accrued on a disbursed loan's outstanding principal. Written by the
+ * interest-accrual batch job with plain JDBC; the unique key makes a re-run of a day a no-op.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_accrual_loan_date", columnNames = {"loan_id", "accrual_date"}),
+        indexes = @Index(name = "idx_accrual_date_group", columnList = "accrual_date, group_id"))
+public class LoanInterestAccrual {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "loan_id", nullable = false)
+    private Loan loan;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "accrual_date", nullable = false)
+    private LocalDate accrualDate;
+
+    private BigDecimal principalBalance;
+
+    private int rateBps;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal interest;
+}
@@ -12,6 +12,11 @@ import java.time.LocalDate;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_repayment_member_date", columnList = "member_id, date, id"),
+        @Index(name = "idx_repayment_group_date", columnList = "group_id, date, id"),
+        @Index(name = "idx_repayment_tx", columnList = "tx_id, id")
+})
 public class LoanRepayment {
     @Id
     @GeneratedValue
@@ -23,4 +28,24 @@ public class LoanRepayment {
 
     private BigDecimal amount;
     private LocalDate date = LocalDate.now();
+
+    // Copied from the loan so listings page over one index without joins
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Column(name = "group_id")
+    private Long groupId;
+
+    // PostgreSQL 13+: id of the inserting transaction, for commit-safe delta exports
+    @Column(name = "tx_id", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default cast(cast(pg_current_xact_id() as text) as bigint)")
+    private Long txId;
+
+    @PrePersist
+    void copyOwner() {
+        if (memberId == null && loan != null) {
+            memberId = loan.getMember().getId();
+            groupId = loan.getMember().getGroup().getId();
+        }
+    }
 }
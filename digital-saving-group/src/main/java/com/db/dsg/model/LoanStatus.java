@@ -1,5 +1,24 @@
 package com.db.dsg.model;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum LoanStatus {
-    PENDING, APPROVED, DISBURSED, REPAID, REJECTED
+    PENDING, APPROVED, DISBURSED, REPAID, REJECTED;
+
+    private static final Map<LoanStatus, Set<LoanStatus>> TRANSITIONS = new EnumMap<>(LoanStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(APPROVED, REJECTED));
+        TRANSITIONS.put(APPROVED, EnumSet.of(DISBURSED, REJECTED));
+        TRANSITIONS.put(DISBURSED, EnumSet.of(REPAID));
+        TRANSITIONS.put(REPAID, EnumSet.noneOf(LoanStatus.class));
+        TRANSITIONS.put(REJECTED, EnumSet.noneOf(LoanStatus.class));
+    }
+
+    public boolean canTransitionTo(LoanStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
 }
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(indexes = @Index(name = "idx_member_group", columnList = "group_id"))
 public class Member {
     @Id
     @GeneratedValue
@@ -0,0 +1,53 @@
+package com.db.dsg.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running savings, borrowing and repayment totals of one member, keyed by member id so an
+ * eligibility check is a primary-key read. Changed only through the delta upserts in
+ * {@code MemberExposureRepository}; {@code rebuild} recomputes it from the source tables.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MemberExposure {
+
+    @Id
+    private Long memberId;
+
+    @Column(nullable = false)
+    private Long groupId;
+
+    private BigDecimal totalSavings;
+
+    private long depositCount;
+
+    private LocalDate lastDepositDate;
+
+    // Principal still owed on DISBURSED loans
+    private BigDecimal outstandingPrincipal;
+
+    private int activeLoans;
+
+    private BigDecimal totalBorrowed;
+
+    private BigDecimal principalRepaid;
+
+    private int loansRepaid;
+
+    private int installmentsOnTime;
+
+    private int installmentsLate;
+
+    private LocalDate lastRepaymentDate;
+
+    private LocalDateTime updatedAt;
+}
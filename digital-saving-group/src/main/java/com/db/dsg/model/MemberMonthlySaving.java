@@ -0,0 +1,41 @@
+package com.db.dsg.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Deposits of one member in one calendar month. Changed by delta upserts on every deposit, see
+ * {@code MemberMonthlySavingRepository}; the backfill recomputes it from {@link SavingDeposit}.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_member_monthly_saving", columnNames = {"member_id", "month_start"}),
+        indexes = @Index(name = "idx_member_monthly_saving_group", columnList = "group_id, month_start"))
+public class MemberMonthlySaving {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    // First day of the month
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(nullable = false)
+    private BigDecimal totalDeposited;
+
+    private long depositCount;
+}
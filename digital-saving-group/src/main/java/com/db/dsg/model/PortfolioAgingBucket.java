@@ -0,0 +1,40 @@
+package com.db.dsg.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Running count and outstanding principal of a group's disbursed loans in one aging bucket.
+ * Only ever changed by delta upserts, see {@code PortfolioAgingBucketRepository.applyDelta}.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_aging_bucket_group", columnNames = {"group_id", "bucket"}))
+public class PortfolioAgingBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AgingBucket bucket;
+
+    private long loanCount;
+
+    @Column(nullable = false)
+    private BigDecimal outstanding;
+
+    private LocalDate lastUpdated;
+}
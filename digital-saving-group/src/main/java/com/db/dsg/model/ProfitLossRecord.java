@@ -25,6 +25,9 @@ public class ProfitLossRecord {
 
     private BigDecimal interestEarned;
 
+    // Set only on the daily "Interest accrual" records; interestEarned stays what was actually collected
+    private BigDecimal interestAccrued;
+
     private BigDecimal lossAmount;
 
     private String description;
@@ -12,9 +12,17 @@ import java.time.LocalDate;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_saving_deposit_member", columnList = "member_id"),
+        @Index(name = "idx_saving_deposit_tx", columnList = "tx_id, id")
+})
 public class SavingDeposit {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence so bulk deposits can be batch-inserted (IDENTITY disables batching).
+    // Moved past the ids of rows written before the switch by SequenceAlignmentService
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saving_deposit_seq")
+    @SequenceGenerator(name = "saving_deposit_seq", sequenceName = "saving_deposit_seq", allocationSize = 50)
     private Long id;
 
     private BigDecimal amount;
@@ -26,5 +34,10 @@ public class SavingDeposit {
 
     private String remarks;
 
+    // PostgreSQL 13+: id of the inserting transaction, for commit-safe delta exports
+    @Column(name = "tx_id", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default cast(cast(pg_current_xact_id() as text) as bigint)")
+    private Long txId;
+
     // Getters and setters
 }
@@ -0,0 +1,35 @@
+package com.db.dsg.repository;
+
+import com.db.dsg.model.ChangeLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLog, Long> {
+
+    // Run through NamedParameterJdbcTemplate, singly or as a batch; tx_id comes from the column default
+    String INSERT = "insert into change_log (group_id, member_id, entity_type, entity_id, op, changed_at) " +
+            "values (:groupId, :memberId, :entityType, :entityId, :op, now())";
+
+    /**
+     * Every transaction older than the oldest one still running has committed or rolled back,
+     * so changes written below this id are final.
+     */
+    @Query(value = "select cast(cast(pg_snapshot_xmin(pg_current_snapshot()) as text) as bigint)", nativeQuery = true)
+    long findCompletedTxWatermark();
+
+    // Changes of transactions in [fromTx, toTx) after a position, in sequence order; members see only their own records
+    @Query("select c from ChangeLog c where c.groupId = :groupId and c.txId >= :fromTx and c.txId < :toTx " +
+            "and c.id > :afterId and (c.memberId is null or :allMembers = true or c.memberId = :memberId) " +
+            "order by c.id")
+    List<ChangeLog> findChanges(@Param("groupId") Long groupId,
+                                @Param("memberId") Long memberId,
+                                @Param("allMembers") boolean allMembers,
+                                @Param("fromTx") long fromTx,
+                                @Param("toTx") long toTx,
+                                @Param("afterId") long afterId,
+                                Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package com.db.dsg.repository;
+
+import com.db.dsg.model.FundLedgerBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface FundLedgerBatchRepository extends JpaRepository<FundLedgerBatch, Long> {
+
+    boolean existsByBatchId(String batchId);
+}
@@ -0,0 +1,49 @@
+package com.db.dsg.repository;
+
+import com.db.dsg.dtos.FundEntryTotal;
+import com.db.dsg.dtos.GroupEntryTotal;
+import com.db.dsg.model.FundLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface FundLedgerEntryRepository extends JpaRepository<FundLedgerEntry, Long> {
+
+    @Query("select new com.db.dsg.dtos.FundEntryTotal(e.type, sum(e.amount)) from FundLedgerEntry e " +
+            "where e.group.id = :groupId and e.snapshotId is null group by e.type")
+    List<FundEntryTotal> sumPendingByType(@Param("groupId") Long groupId);
+
+    @Query("select new com.db.dsg.dtos.FundEntryTotal(e.type, sum(e.amount)) from FundLedgerEntry e " +
+            "where e.snapshotId = :snapshotId group by e.type")
+    List<FundEntryTotal> sumBySnapshot(@Param("snapshotId") Long snapshotId);
+
+    @Query("select new com.db.dsg.dtos.GroupEntryTotal(e.group.id, e.type, sum(e.amount)) from FundLedgerEntry e " +
+            "where e.group.id between :fromGroupId and :toGroupId and e.snapshotId is null " +
+            "group by e.group.id, e.type")
+    List<GroupEntryTotal> sumPendingByGroupRange(@Param("fromGroupId") Long fromGroupId,
+                                                 @Param("toGroupId") Long toGroupId);
+
+    @Query("select distinct e.group.id from FundLedgerEntry e where e.snapshotId is null")
+    List<Long> findGroupIdsWithPendingEntries();
+
+    // Only committed entries are visible to the update, so in-flight ones wait for the next snapshot
+    @Modifying(flushAutomatically = true)
+    @Query("update FundLedgerEntry e set e.snapshotId = :snapshotId " +
+            "where e.group.id = :groupId and e.snapshotId is null")
+    int markFolded(@Param("groupId") Long groupId, @Param("snapshotId") Long snapshotId);
+
+    // Entries up to a point in time that the given snapshot does not already include
+    @Query("select sum(e.amount) from FundLedgerEntry e where e.group.id = :groupId and e.createdAt <= :at " +
+            "and (e.snapshotId is null or e.snapshotId > :snapshotId)")
+    BigDecimal sumUpToNotInSnapshot(@Param("groupId") Long groupId,
+                                    @Param("at") LocalDateTime at,
+                                    @Param("snapshotId") Long snapshotId);
+
+    @Query("select sum(e.amount) from FundLedgerEntry e where e.group.id = :groupId and e.createdAt > :at")
+    BigDecimal sumCreatedAfter(@Param("groupId") Long groupId, @Param("at") LocalDateTime at);
+}
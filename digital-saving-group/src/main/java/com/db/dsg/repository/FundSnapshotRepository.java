@@ -0,0 +1,11 @@
+package com.db.dsg.repository;
+
+import com.db.dsg.model.FundSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface FundSnapshotRepository extends JpaRepository<FundSnapshot, Long> {
+    Optional<FundSnapshot> findFirstByGroup_IdAndTakenAtLessThanEqualOrderByTakenAtDesc(Long groupId, LocalDateTime at);
+}
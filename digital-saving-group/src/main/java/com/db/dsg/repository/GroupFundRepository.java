@@ -1,10 +1,41 @@
 package com.db.dsg.repository;
 
+import com.db.dsg.dtos.GroupFundTotals;
 import com.db.dsg.model.GroupFund;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 public interface GroupFundRepository extends JpaRepository<GroupFund, Long> {
     Optional<GroupFund> findByGroup_Id(Long groupId);
+
+    boolean existsByGroup_Id(Long groupId);
+
+    // select ... for update: holds off snapshots and other corrections until the caller commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from GroupFund f where f.group.id = :groupId")
+    Optional<GroupFund> findByGroupIdForUpdate(@Param("groupId") Long groupId);
+
+    // Folds a batch of ledger deltas into the row in one statement; returns 0 when the group has no fund
+    @Modifying(flushAutomatically = true)
+    @Query("update GroupFund f set f.balance = f.balance + :balance, f.profit = f.profit + :profit, " +
+            "f.loss = f.loss + :loss, f.lastUpdated = :today where f.group.id = :groupId")
+    int applyDelta(@Param("groupId") Long groupId,
+                   @Param("balance") BigDecimal balance,
+                   @Param("profit") BigDecimal profit,
+                   @Param("loss") BigDecimal loss,
+                   @Param("today") LocalDate today);
+
+    @Query("select new com.db.dsg.dtos.GroupFundTotals(f.group.id, f.balance, f.profit, f.loss) from GroupFund f " +
+            "where f.group.id between :fromGroupId and :toGroupId")
+    List<GroupFundTotals> findTotalsByGroupRange(@Param("fromGroupId") Long fromGroupId,
+                                                 @Param("toGroupId") Long toGroupId);
 }
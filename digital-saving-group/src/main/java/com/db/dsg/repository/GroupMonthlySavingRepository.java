@@ -0,0 +1,46 @@
+package com.db.dsg.repository;
+
+import com.db.dsg.dtos.MonthlySavingPoint;
+import com.db.dsg.model.GroupMonthlySaving;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface GroupMonthlySavingRepository extends JpaRepository<GroupMonthlySaving, Long> {
+
+    // PostgreSQL upsert: creates the month's row on the group's first deposit in it, otherwise adds in place
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into group_monthly_saving (group_id, month_start, total_deposited, deposit_count) " +
+            "values (:groupId, :month, :amount, :count) " +
+            "on conflict (group_id, month_start) do update set " +
+            "total_deposited = group_monthly_saving.total_deposited + excluded.total_deposited, " +
+            "deposit_count = group_monthly_saving.deposit_count + excluded.deposit_count", nativeQuery = true)
+    void addDeposits(@Param("groupId") Long groupId,
+                     @Param("month") LocalDate month,
+                     @Param("amount") BigDecimal amount,
+                     @Param("count") long count);
+
+    // Run before rebuildGroupRange, so months that no longer have deposits do not linger
+    @Modifying(flushAutomatically = true)
+    @Query(value = "delete from group_monthly_saving where group_id between :fromGroupId and :toGroupId", nativeQuery = true)
+    int deleteGroupRange(@Param("fromGroupId") long fromGroupId, @Param("toGroupId") long toGroupId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into group_monthly_saving (group_id, month_start, total_deposited, deposit_count) " +
+            "select m.group_id, cast(date_trunc('month', s.date) as date), sum(s.amount), count(s.id) " +
+            "from saving_deposit s join member m on m.id = s.member_id " +
+            "where m.group_id between :fromGroupId and :toGroupId " +
+            "group by m.group_id, cast(date_trunc('month', s.date) as date) " +
+            "on conflict (group_id, month_start) do update set " +
+            "total_deposited = excluded.total_deposited, deposit_count = excluded.deposit_count", nativeQuery = true)
+    int rebuildGroupRange(@Param("fromGroupId") long fromGroupId, @Param("toGroupId") long toGroupId);
+
+    @Query("select new com.db.dsg.dtos.MonthlySavingPoint(r.monthStart, r.totalDeposited, r.depositCount) " +
+            "from GroupMonthlySaving r where r.groupId = :groupId and r.monthStart >= :from order by r.monthStart")
+    List<MonthlySavingPoint> findSeries(@Param("groupId") Long groupId, @Param("from") LocalDate from);
+}
@@ -2,9 +2,16 @@ package com.db.dsg.repository;
 
 import com.db.dsg.model.Group;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
 public interface GroupRepository extends JpaRepository<Group, Long> {
     Optional<Group> findByName(String name);
+
+    @Query("select min(g.id) from Group g")
+    Long findMinId();
+
+    @Query("select max(g.id) from Group g")
+    Long findMaxId();
 }
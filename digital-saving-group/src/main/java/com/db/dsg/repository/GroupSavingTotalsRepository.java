@@ -0,0 +1,35 @@
+package com.db.dsg.repository;
+
+import com.db.dsg.model.GroupSavingTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface GroupSavingTotalsRepository extends JpaRepository<GroupSavingTotals, Long> {
+
+    // Adds deposits in place; returns 0 when the group has no totals row yet
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update group_saving_totals set total_deposited = total_deposited + :amount, " +
+            "deposit_count = deposit_count + :count, " +
+            "last_deposit_date = greatest(last_deposit_date, cast(:date as date)), updated_at = now() " +
+            "where group_id = :groupId", nativeQuery = true)
+    int addDeposits(@Param("groupId") Long groupId,
+                    @Param("amount") BigDecimal amount,
+                    @Param("count") long count,
+                    @Param("date") LocalDate date);
+
+    String FROM_DEPOSITS = "insert into group_saving_totals (group_id, total_deposited, deposit_count, last_deposit_date, updated_at) " +
+            "select :groupId, coalesce(sum(s.amount), 0), count(s.id), max(s.date), now() " +
+            "from saving_deposit s join member m on m.id = s.member_id where m.group_id = :groupId ";
+
+    // Creates the row from the deposits table, including any deposit flushed in this transaction.
+    // Returns 0 when another transaction created it first; its sums did not see this transaction's
+    // deposits, so the caller adds them with addDeposits
+    @Modifying(flushAutomatically = true)
+    @Query(value = FROM_DEPOSITS + "on conflict (group_id) do nothing", nativeQuery = true)
+    int seed(@Param("groupId") Long groupId);
+}
@@ -0,0 +1,14 @@
+package com.db.dsg.repository;
+
+import com.db.dsg.model.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+    List<ImportJob> findByStatusIn(Collection<ImportJob.Status> statuses);
+
+    Optional<ImportJob> findFirstByGroupIdAndTypeAndContentHash(Long groupId, ImportJob.Type type, String contentHash);
+}
@@ -0,0 +1,12 @@
+package com.db.dsg.repository;
+
+import com.db.dsg.model.ImportRowError;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ImportRowErrorRepository extends JpaRepository<ImportRowError, Long> {
+    // Keyset over (job_id, row_number)
+    List<ImportRowError> findByJobIdAndRowNumberGreaterThanOrderByRowNumberAsc(String jobId, long afterRow, Pageable page);
+}
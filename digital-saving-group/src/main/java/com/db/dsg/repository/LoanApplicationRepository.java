@@ -1,17 +1,100 @@
 package com.db.dsg.repository;
 
+import com.db.dsg.dtos.GroupAmount;
+import com.db.dsg.dtos.LoanAging;
+import com.db.dsg.dtos.LoanExportRow;
+import com.db.dsg.model.AgingBucket;
 import com.db.dsg.model.Loan;
 import com.db.dsg.model.LoanStatus;
 import com.db.dsg.model.Member;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface LoanApplicationRepository extends JpaRepository<Loan, Long> {
     List<Loan> findByMember_Group_Id(Long groupId);
     List<Loan> findByMember(Member member);
+    List<Loan> findByMember_Id(Long memberId);
     List<Loan> findByMember_Group_IdAndRepaymentDateBetween(Long groupId, LocalDate start, LocalDate end);
+    List<Loan> findByRepaymentDateBetween(LocalDate start, LocalDate end); // for all groups
     List<Loan> findByMember_Group_IdAndStatusAndDisbursementDateBefore(Long groupId, LoanStatus status, LocalDate date);
 
-}
\ No newline at end of file
+    // Overdue fallback for loans disbursed before repayment schedules existed
+    @Query("select l from Loan l where l.member.group.id = :groupId and l.status = :status " +
+            "and l.disbursementDate < :date " +
+            "and not exists (select i.id from LoanInstallment i where i.loan = l)")
+    List<Loan> findUnscheduledByGroupAndStatusDisbursedBefore(@Param("groupId") Long groupId,
+                                                              @Param("status") LoanStatus status,
+                                                              @Param("date") LocalDate date);
+
+    // Aging roll-forward candidates: loans never bucketed, already past due, or with an instalment now past due
+    @Query("select new com.db.dsg.dtos.LoanAging(l.id, m.id, m.group.id, l.version, l.remainingBalance, l.agingBucket, " +
+            "l.disbursementDate, (select min(i.dueDate) from LoanInstallment i where i.loan = l and i.settled = false)) " +
+            "from Loan l join l.member m where l.status = :status and (l.agingBucket is null " +
+            "or l.agingBucket <> :current " +
+            "or exists (select i.id from LoanInstallment i where i.loan = l and i.settled = false and i.dueDate < :today) " +
+            "or (l.disbursementDate < :legacyDueBefore " +
+            "and not exists (select i.id from LoanInstallment i where i.loan = l)))")
+    List<LoanAging> findAgingCandidates(@Param("status") LoanStatus status,
+                                        @Param("current") AgingBucket current,
+                                        @Param("today") LocalDate today,
+                                        @Param("legacyDueBefore") LocalDate legacyDueBefore);
+
+    // Moves a loan between buckets only if nothing touched it since it was read; bumps the version so
+    // a repayment racing with the roll-forward fails its optimistic check and is retried
+    @Modifying(flushAutomatically = true)
+    @Query("update versioned Loan l set l.agingBucket = :bucket where l.id = :loanId and l.version = :version")
+    int moveToBucket(@Param("loanId") Long loanId,
+                     @Param("version") long version,
+                     @Param("bucket") AgingBucket bucket);
+
+    // Fills the group copy on loans created before it existed
+    @Modifying
+    @Query(value = "update loan l set group_id = m.group_id from member m " +
+            "where m.id = l.member_id and l.group_id is null", nativeQuery = true)
+    int backfillGroupIds();
+
+    // Bulk workflows: the loans with member and group in one statement
+    @Query("select l from Loan l join fetch l.member m join fetch m.group where l.id in :ids")
+    List<Loan> findAllWithMemberAndGroupByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Flat export rows in a single statement, cursor-backed; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.db.dsg.dtos.LoanExportRow(m.name, g.name, l.amount, l.remainingBalance, l.status, " +
+            "l.disbursementDate, l.repaymentDate) " +
+            "from Loan l join l.member m join m.group g " +
+            "where g.id = :groupId and l.repaymentDate between :start and :end order by l.id")
+    Stream<LoanExportRow> streamRepaymentExportRows(@Param("groupId") Long groupId,
+                                                    @Param("start") LocalDate start,
+                                                    @Param("end") LocalDate end);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.db.dsg.dtos.LoanExportRow(m.name, g.name, l.amount, l.remainingBalance, l.status, " +
+            "l.disbursementDate, l.repaymentDate) " +
+            "from Loan l join l.member m join m.group g " +
+            "where l.repaymentDate between :start and :end order by l.id")
+    Stream<LoanExportRow> streamAllRepaymentExportRows(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // Reconciliation: principal paid out and principal paid back, per group, for a group-id range
+    @Query("select new com.db.dsg.dtos.GroupAmount(m.group.id, sum(l.amount)) from Loan l join l.member m " +
+            "where m.group.id between :fromGroupId and :toGroupId and l.status in :statuses group by m.group.id")
+    List<GroupAmount> sumAmountByGroupRange(@Param("fromGroupId") Long fromGroupId,
+                                            @Param("toGroupId") Long toGroupId,
+                                            @Param("statuses") Collection<LoanStatus> statuses);
+
+    @Query("select new com.db.dsg.dtos.GroupAmount(m.group.id, sum(l.amount - l.remainingBalance)) " +
+            "from Loan l join l.member m " +
+            "where m.group.id between :fromGroupId and :toGroupId and l.status in :statuses group by m.group.id")
+    List<GroupAmount> sumRepaidByGroupRange(@Param("fromGroupId") Long fromGroupId,
+                                            @Param("toGroupId") Long toGroupId,
+                                            @Param("statuses") Collection<LoanStatus> statuses);
+}
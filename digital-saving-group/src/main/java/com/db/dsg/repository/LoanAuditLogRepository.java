@@ -2,9 +2,16 @@ package com.db.dsg.repository;
 
 import com.db.dsg.model.LoanAuditLog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface LoanAuditLogRepository extends JpaRepository<LoanAuditLog, Long> {
     List<LoanAuditLog> findByLoan_IdOrderByTimestampAsc(Long loanId);
+
+    @Query("select a.eventId from LoanAuditLog a where a.eventId in :eventIds")
+    Set<String> findExistingEventIds(@Param("eventIds") Collection<String> eventIds);
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.db.dsg.repository;
+
+import com.db.dsg.dtos.InstallmentDue;
+import com.db.dsg.model.Loan;
+import com.db.dsg.model.LoanInstallment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface LoanInstallmentRepository extends JpaRepository<LoanInstallment, Long> {
+
+    List<LoanInstallment> findByLoan_IdAndSettledFalseOrderByNumberAsc(Long loanId);
+
+    boolean existsByLoan_Id(Long loanId);
+
+    @Query("select min(i.dueDate) from LoanInstallment i where i.loan.id = :loanId and i.settled = false")
+    Optional<LocalDate> findOldestOpenDueDate(@Param("loanId") Long loanId);
+
+    @Query("select new com.db.dsg.dtos.InstallmentDue(l.id, m.name, i.number, i.dueDate, i.principalDue, " +
+            "i.interestDue, i.principalPaid, i.interestPaid, i.settled) " +
+            "from LoanInstallment i join i.loan l join l.member m where l.id = :loanId order by i.number")
+    List<InstallmentDue> findSchedule(@Param("loanId") Long loanId);
+
+    // Served by idx_installment_group_due: equality on group and settled, range on due date
+    @Query("select new com.db.dsg.dtos.InstallmentDue(l.id, m.name, i.number, i.dueDate, i.principalDue, " +
+            "i.interestDue, i.principalPaid, i.interestPaid, i.settled) " +
+            "from LoanInstallment i join i.loan l join l.member m " +
+            "where i.groupId = :groupId and i.settled = false and i.dueDate between :from and :to " +
+            "order by i.dueDate, l.id")
+    List<InstallmentDue> findDueBetween(@Param("groupId") Long groupId,
+                                        @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to);
+
+    @Query("select distinct i.loan from LoanInstallment i " +
+            "where i.groupId = :groupId and i.settled = false and i.dueDate < :today")
+    List<Loan> findOverdueLoans(@Param("groupId") Long groupId, @Param("today") LocalDate today);
+}
@@ -1,10 +1,18 @@
 package com.db.dsg.repository;
 
+import com.db.dsg.dtos.RepaymentExportRow;
 import com.db.dsg.model.LoanRepayment;
 import com.db.dsg.model.Member;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface LoanRepaymentRepository extends JpaRepository<LoanRepayment, Long> {
     List<LoanRepayment> findByLoanId(Long loanId);
@@ -13,4 +21,20 @@ public interface LoanRepaymentRepository extends JpaRepository<LoanRepayment, Lo
 
     List<LoanRepayment> findByLoan_Member_Group_Id(Long groupId);
     List<LoanRepayment> findByLoan_Member_Id(Long memberId);
-}
\ No newline at end of file
+
+    // Fills the owner copies on repayments recorded before they existed; run after the loan backfill
+    @Modifying
+    @Query(value = "update loan_repayment r set member_id = l.member_id, group_id = l.group_id from loan l " +
+            "where l.id = r.loan_id and r.member_id is null", nativeQuery = true)
+    int backfillOwnerIds();
+
+    // Watermark-based delta: rows inserted by transactions in [fromTx, toTx), see ChangeLogRepository.findCompletedTxWatermark
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.db.dsg.dtos.RepaymentExportRow(r.id, l.id, m.name, g.id, g.name, r.amount, r.date) " +
+            "from LoanRepayment r join r.loan l join l.member m join m.group g " +
+            "where r.txId >= :fromTx and r.txId < :toTx and (:groupId is null or g.id = :groupId) " +
+            "order by r.txId, r.id")
+    Stream<RepaymentExportRow> streamExportRowsBetweenTx(@Param("fromTx") long fromTx,
+                                                         @Param("toTx") long toTx,
+                                                         @Param("groupId") Long groupId);
+}
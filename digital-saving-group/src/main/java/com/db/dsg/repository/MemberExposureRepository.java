@@ -0,0 +1,108 @@
+package com.db.dsg.repository;
+
+import com.db.dsg.model.MemberExposure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * PostgreSQL upserts: the first event for a member creates the row, later ones add to it in
+ * place, so concurrent deposits and repayments never overwrite each other.
+ */
+public interface MemberExposureRepository extends JpaRepository<MemberExposure, Long> {
+
+    String INSERT = "insert into member_exposure (member_id, group_id, total_savings, deposit_count, " +
+            "last_deposit_date, outstanding_principal, active_loans, total_borrowed, principal_repaid, loans_repaid, " +
+            "installments_on_time, installments_late, last_repayment_date, updated_at) ";
+
+    // Also run as a JDBC batch for bulk deposits, hence a constant with named parameters
+    String ADD_DEPOSITS = INSERT + "values (:memberId, :groupId, :amount, :count, :date, 0, 0, 0, 0, 0, 0, 0, null, now()) " +
+            "on conflict (member_id) do update set " +
+            "total_savings = member_exposure.total_savings + excluded.total_savings, " +
+            "deposit_count = member_exposure.deposit_count + excluded.deposit_count, " +
+            "last_deposit_date = greatest(member_exposure.last_deposit_date, excluded.last_deposit_date), " +
+            "updated_at = excluded.updated_at";
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = ADD_DEPOSITS, nativeQuery = true)
+    void addDeposits(@Param("memberId") Long memberId,
+                     @Param("groupId") Long groupId,
+                     @Param("amount") BigDecimal amount,
+                     @Param("count") long count,
+                     @Param("date") LocalDate date);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERT + "values (:memberId, :groupId, 0, 0, null, :amount, 1, :amount, 0, 0, 0, 0, null, now()) " +
+            "on conflict (member_id) do update set " +
+            "outstanding_principal = member_exposure.outstanding_principal + excluded.outstanding_principal, " +
+            "active_loans = member_exposure.active_loans + 1, " +
+            "total_borrowed = member_exposure.total_borrowed + excluded.total_borrowed, " +
+            "updated_at = excluded.updated_at", nativeQuery = true)
+    void addDisbursement(@Param("memberId") Long memberId,
+                         @Param("groupId") Long groupId,
+                         @Param("amount") BigDecimal amount);
+
+    // loansRepaid is 1 when this repayment closed the loan, which also ends it being active
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERT + "values (:memberId, :groupId, 0, 0, null, 0, 0, 0, :principal, :loansRepaid, " +
+            ":onTime, :late, :date, now()) " +
+            "on conflict (member_id) do update set " +
+            "outstanding_principal = member_exposure.outstanding_principal - excluded.principal_repaid, " +
+            "active_loans = member_exposure.active_loans - excluded.loans_repaid, " +
+            "principal_repaid = member_exposure.principal_repaid + excluded.principal_repaid, " +
+            "loans_repaid = member_exposure.loans_repaid + excluded.loans_repaid, " +
+            "installments_on_time = member_exposure.installments_on_time + excluded.installments_on_time, " +
+            "installments_late = member_exposure.installments_late + excluded.installments_late, " +
+            "last_repayment_date = greatest(member_exposure.last_repayment_date, excluded.last_repayment_date), " +
+            "updated_at = excluded.updated_at", nativeQuery = true)
+    void addRepayment(@Param("memberId") Long memberId,
+                      @Param("groupId") Long groupId,
+                      @Param("principal") BigDecimal principal,
+                      @Param("loansRepaid") int loansRepaid,
+                      @Param("onTime") int onTime,
+                      @Param("late") int late,
+                      @Param("date") LocalDate date);
+
+    String REBUILD = INSERT +
+            "select m.id, m.group_id, coalesce(d.total, 0), coalesce(d.cnt, 0), d.last_date, " +
+            "coalesce(l.outstanding, 0), coalesce(l.active, 0), coalesce(l.borrowed, 0), coalesce(l.repaid, 0), " +
+            "coalesce(l.closed, 0), coalesce(i.on_time, 0), coalesce(i.late, 0), " +
+            "greatest(i.last_date, r.last_date), now() " +
+            "from member m " +
+            "left join (select member_id, sum(amount) total, count(*) cnt, max(date) last_date " +
+            "from saving_deposit group by member_id) d on d.member_id = m.id " +
+            "left join (select member_id, " +
+            "sum(remaining_balance) filter (where status = 'DISBURSED') outstanding, " +
+            "count(*) filter (where status = 'DISBURSED') active, " +
+            "sum(amount) filter (where status in ('DISBURSED', 'REPAID')) borrowed, " +
+            "sum(amount - remaining_balance) filter (where status in ('DISBURSED', 'REPAID')) repaid, " +
+            "count(*) filter (where status = 'REPAID') closed " +
+            "from loan group by member_id) l on l.member_id = m.id " +
+            "left join (select lo.member_id, count(*) filter (where i.settled_date <= i.due_date) on_time, " +
+            "count(*) filter (where i.settled_date > i.due_date) late, max(i.settled_date) last_date " +
+            "from loan_installment i join loan lo on lo.id = i.loan_id where i.settled " +
+            "group by lo.member_id) i on i.member_id = m.id " +
+            "left join (select lo.member_id, max(r.date) last_date from loan_repayment r " +
+            "join loan lo on lo.id = r.loan_id group by lo.member_id) r on r.member_id = m.id ";
+
+    String OVERWRITE = "on conflict (member_id) do update set group_id = excluded.group_id, " +
+            "total_savings = excluded.total_savings, deposit_count = excluded.deposit_count, " +
+            "last_deposit_date = excluded.last_deposit_date, outstanding_principal = excluded.outstanding_principal, " +
+            "active_loans = excluded.active_loans, total_borrowed = excluded.total_borrowed, " +
+            "principal_repaid = excluded.principal_repaid, loans_repaid = excluded.loans_repaid, " +
+            "installments_on_time = excluded.installments_on_time, installments_late = excluded.installments_late, " +
+            "last_repayment_date = excluded.last_repayment_date, updated_at = excluded.updated_at";
+
+    // First event of a member: creates the row, or leaves a concurrently created one for the delta
+    @Modifying(flushAutomatically = true)
+    @Query(value = REBUILD + "where m.id = :memberId on conflict (member_id) do nothing", nativeQuery = true)
+    int seed(@Param("memberId") Long memberId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = REBUILD + OVERWRITE, nativeQuery = true)
+    int rebuildAll();
+}
@@ -0,0 +1,51 @@
+package com.db.dsg.repository;
+
+import com.db.dsg.dtos.MonthlySavingPoint;
+import com.db.dsg.model.MemberMonthlySaving;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface MemberMonthlySavingRepository extends JpaRepository<MemberMonthlySaving, Long> {
+
+    // PostgreSQL upsert, also run as a JDBC batch for bulk deposits
+    String ADD_DEPOSITS = "insert into member_monthly_saving (member_id, group_id, month_start, total_deposited, deposit_count) " +
+            "values (:memberId, :groupId, :month, :amount, :count) " +
+            "on conflict (member_id, month_start) do update set " +
+            "total_deposited = member_monthly_saving.total_deposited + excluded.total_deposited, " +
+            "deposit_count = member_monthly_saving.deposit_count + excluded.deposit_count";
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = ADD_DEPOSITS, nativeQuery = true)
+    void addDeposits(@Param("memberId") Long memberId,
+                     @Param("groupId") Long groupId,
+                     @Param("month") LocalDate month,
+                     @Param("amount") BigDecimal amount,
+                     @Param("count") long count);
+
+    // Run before rebuildGroupRange, so months that no longer have deposits do not linger
+    @Modifying(flushAutomatically = true)
+    @Query(value = "delete from member_monthly_saving where group_id between :fromGroupId and :toGroupId", nativeQuery = true)
+    int deleteGroupRange(@Param("fromGroupId") long fromGroupId, @Param("toGroupId") long toGroupId);
+
+    // Overwrites the months of every member in the group range from the deposits table
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into member_monthly_saving (member_id, group_id, month_start, total_deposited, deposit_count) " +
+            "select s.member_id, m.group_id, cast(date_trunc('month', s.date) as date), sum(s.amount), count(s.id) " +
+            "from saving_deposit s join member m on m.id = s.member_id " +
+            "where m.group_id between :fromGroupId and :toGroupId " +
+            "group by s.member_id, m.group_id, cast(date_trunc('month', s.date) as date) " +
+            "on conflict (member_id, month_start) do update set " +
+            "group_id = excluded.group_id, total_deposited = excluded.total_deposited, " +
+            "deposit_count = excluded.deposit_count", nativeQuery = true)
+    int rebuildGroupRange(@Param("fromGroupId") long fromGroupId, @Param("toGroupId") long toGroupId);
+
+    @Query("select new com.db.dsg.dtos.MonthlySavingPoint(r.monthStart, r.totalDeposited, r.depositCount) " +
+            "from MemberMonthlySaving r where r.memberId = :memberId and r.monthStart >= :from order by r.monthStart")
+    List<MonthlySavingPoint> findSeries(@Param("memberId") Long memberId, @Param("from") LocalDate from);
+}
@@ -1,9 +1,13 @@
 package com.db.dsg.repository;
 
+import com.db.dsg.dtos.MemberLookupRow;
 import com.db.dsg.model.Member;
 import com.db.dsg.model.MemberUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +15,12 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
     List<Member> findByGroup_Id(Long groupId);
     Optional<Member> findByUser(MemberUser user);
     List<Member> findByGroupId(Long groupId);
+
+    // Imports resolve members by name or phone without loading entities
+    @Query("select new com.db.dsg.dtos.MemberLookupRow(m.id, m.name, m.phone) from Member m where m.group.id = :groupId")
+    List<MemberLookupRow> findLookupRowsByGroupId(@Param("groupId") Long groupId);
+
+    // Id-only check so validating a batch of members does not load their users and roles
+    @Query("select m.id from Member m where m.id in :ids and m.group.id = :groupId")
+    List<Long> findIdsInGroup(@Param("ids") Collection<Long> ids, @Param("groupId") Long groupId);
 }
@@ -3,5 +3,8 @@ package com.db.dsg.repository;
 import com.db.dsg.model.Poll;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface PollRepository extends JpaRepository<Poll, Long> {
+    List<Poll> findByGroupId(Long groupId);
 }
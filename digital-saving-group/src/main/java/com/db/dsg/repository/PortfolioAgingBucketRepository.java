@@ -0,0 +1,38 @@
+package com.db.dsg.repository;
+
+import com.db.dsg.dtos.AgingBucketTotal;
+import com.db.dsg.model.PortfolioAgingBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PortfolioAgingBucketRepository extends JpaRepository<PortfolioAgingBucket, Long> {
+
+    // PostgreSQL upsert: creates the (group, bucket) row on first use, otherwise adds to it in place
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into portfolio_aging_bucket (group_id, bucket, loan_count, outstanding, last_updated) " +
+            "values (:groupId, :bucket, :loans, :amount, :today) " +
+            "on conflict (group_id, bucket) do update set " +
+            "loan_count = portfolio_aging_bucket.loan_count + excluded.loan_count, " +
+            "outstanding = portfolio_aging_bucket.outstanding + excluded.outstanding, " +
+            "last_updated = excluded.last_updated", nativeQuery = true)
+    void applyDelta(@Param("groupId") Long groupId,
+                    @Param("bucket") String bucket,
+                    @Param("loans") long loans,
+                    @Param("amount") BigDecimal amount,
+                    @Param("today") LocalDate today);
+
+    // Bucket names sort in aging order
+    @Query("select new com.db.dsg.dtos.AgingBucketTotal(b.group.id, b.bucket, b.loanCount, b.outstanding) " +
+            "from PortfolioAgingBucket b where b.group.id = :groupId order by b.bucket")
+    List<AgingBucketTotal> findTotalsByGroup(@Param("groupId") Long groupId);
+
+    @Query("select new com.db.dsg.dtos.AgingBucketTotal(b.group.id, b.bucket, b.loanCount, b.outstanding) " +
+            "from PortfolioAgingBucket b order by b.group.id, b.bucket")
+    List<AgingBucketTotal> findAllTotals();
+}
@@ -1,10 +1,26 @@
 package com.db.dsg.repository;
 
+import com.db.dsg.dtos.ProfitLossSummary;
 import com.db.dsg.model.ProfitLossRecord;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ProfitLossRecordRepository extends JpaRepository<ProfitLossRecord, Long> {
     List<ProfitLossRecord> findByGroup_IdOrderByDateDesc(Long groupId);
+
+    @Query("select new com.db.dsg.dtos.ProfitLossSummary(coalesce(sum(r.principalPaid), 0), " +
+            "coalesce(sum(r.interestEarned), 0), coalesce(sum(r.interestAccrued), 0), coalesce(sum(r.lossAmount), 0)) " +
+            "from ProfitLossRecord r where r.group.id = :groupId")
+    ProfitLossSummary summarizeByGroup(@Param("groupId") Long groupId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ProfitLossRecord> streamByGroup_IdAndDateBetweenOrderByDateAsc(Long groupId, LocalDate from, LocalDate to);
 }
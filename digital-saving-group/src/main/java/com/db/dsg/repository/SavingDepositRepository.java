@@ -1,10 +1,19 @@
 package com.db.dsg.repository;
 
+import com.db.dsg.dtos.GroupAmount;
+import com.db.dsg.dtos.SavingExportRow;
+import com.db.dsg.dtos.SavingSummaryResponse;
 import com.db.dsg.model.SavingDeposit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface SavingDepositRepository extends JpaRepository<SavingDeposit, Long> {
     List<SavingDeposit> findByMemberIdOrderByDateDesc(Long memberId);
@@ -20,4 +29,53 @@ public interface SavingDepositRepository extends JpaRepository<SavingDeposit, Lo
     List<SavingDeposit> findByMember_Group_IdAndDateBetween(Long groupId, LocalDate from, LocalDate to);
     List<SavingDeposit> findByDateBetween(LocalDate from, LocalDate to); // for all groups
 
+    // Flat export rows in a single statement, cursor-backed; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.db.dsg.dtos.SavingExportRow(s.id, m.name, g.id, g.name, s.amount, s.date, s.remarks) " +
+            "from SavingDeposit s join s.member m join m.group g " +
+            "where g.id = :groupId and s.date between :from and :to order by s.id")
+    Stream<SavingExportRow> streamExportRows(@Param("groupId") Long groupId,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.db.dsg.dtos.SavingExportRow(s.id, m.name, g.id, g.name, s.amount, s.date, s.remarks) " +
+            "from SavingDeposit s join s.member m join m.group g " +
+            "where s.date between :from and :to order by s.id")
+    Stream<SavingExportRow> streamAllExportRows(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Shard of the all-groups export, ordered so each group's rows are contiguous
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.db.dsg.dtos.SavingExportRow(s.id, m.name, g.id, g.name, s.amount, s.date, s.remarks) " +
+            "from SavingDeposit s join s.member m join m.group g " +
+            "where g.id between :fromGroupId and :toGroupId and s.date between :from and :to " +
+            "order by g.id, s.id")
+    Stream<SavingExportRow> streamExportRowsForGroupRange(@Param("fromGroupId") Long fromGroupId,
+                                                          @Param("toGroupId") Long toGroupId,
+                                                          @Param("from") LocalDate from,
+                                                          @Param("to") LocalDate to);
+
+    // Watermark-based delta: rows inserted by transactions in [fromTx, toTx), see ChangeLogRepository.findCompletedTxWatermark
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.db.dsg.dtos.SavingExportRow(s.id, m.name, g.id, g.name, s.amount, s.date, s.remarks) " +
+            "from SavingDeposit s join s.member m join m.group g " +
+            "where s.txId >= :fromTx and s.txId < :toTx and (:groupId is null or g.id = :groupId) " +
+            "order by s.txId, s.id")
+    Stream<SavingExportRow> streamExportRowsBetweenTx(@Param("fromTx") long fromTx,
+                                                      @Param("toTx") long toTx,
+                                                      @Param("groupId") Long groupId);
+
+    // Summary fallbacks for when no running-totals row exists: one aggregate row, no entities loaded
+    @Query("select new com.db.dsg.dtos.SavingSummaryResponse(coalesce(sum(s.amount), 0), count(s), max(s.date)) " +
+            "from SavingDeposit s where s.member.group.id = :groupId")
+    SavingSummaryResponse summarizeByGroup(@Param("groupId") Long groupId);
+
+    @Query("select new com.db.dsg.dtos.SavingSummaryResponse(coalesce(sum(s.amount), 0), count(s), max(s.date)) " +
+            "from SavingDeposit s where s.member.id = :memberId")
+    SavingSummaryResponse summarizeByMember(@Param("memberId") Long memberId);
+
+    // Reconciliation: per-group totals for a group-id range, aggregated in the database
+    @Query("select new com.db.dsg.dtos.GroupAmount(m.group.id, sum(s.amount)) from SavingDeposit s join s.member m " +
+            "where m.group.id between :fromGroupId and :toGroupId group by m.group.id")
+    List<GroupAmount> sumByGroupRange(@Param("fromGroupId") Long fromGroupId, @Param("toGroupId") Long toGroupId);
 }
@@ -0,0 +1,67 @@
+package com.db.dsg.service;
+
+import com.db.dsg.model.ChangeLog;
+import com.db.dsg.model.Loan;
+import com.db.dsg.model.SavingDeposit;
+import com.db.dsg.repository.ChangeLogRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes the change log read by delta sync. Call it inside the transaction that makes the
+ * change, so the entry commits or rolls back with it. Bulk writes go out as one JDBC batch.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChangeLogService {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    // memberId is the owner of member-scoped records, null for meetings and polls
+    public void record(ChangeLog.EntityType type, Long entityId, ChangeLog.Op op, Long groupId, Long memberId) {
+        if (groupId != null) {
+            jdbc.update(ChangeLogRepository.INSERT, params(type, entityId, op, groupId, memberId));
+        }
+    }
+
+    public void recordDeposits(Collection<SavingDeposit> deposits, Long groupId) {
+        List<MapSqlParameterSource> batch = new ArrayList<>(deposits.size());
+        for (SavingDeposit deposit : deposits) {
+            batch.add(params(ChangeLog.EntityType.DEPOSIT, deposit.getId(), ChangeLog.Op.CREATED,
+                    groupId, deposit.getMember().getId()));
+        }
+        send(batch);
+    }
+
+    // Loans must have their group id set, which every saved loan has
+    public void recordLoans(Collection<Loan> loans, ChangeLog.Op op) {
+        List<MapSqlParameterSource> batch = new ArrayList<>(loans.size());
+        for (Loan loan : loans) {
+            batch.add(params(ChangeLog.EntityType.LOAN, loan.getId(), op, loan.getGroupId(), loan.getMember().getId()));
+        }
+        send(batch);
+    }
+
+    private void send(List<MapSqlParameterSource> batch) {
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(ChangeLogRepository.INSERT, batch.toArray(new MapSqlParameterSource[0]));
+        }
+    }
+
+    private static MapSqlParameterSource params(ChangeLog.EntityType type, Long entityId, ChangeLog.Op op,
+                                                Long groupId, Long memberId) {
+        return new MapSqlParameterSource()
+                .addValue("groupId", groupId)
+                .addValue("memberId", memberId, Types.BIGINT)
+                .addValue("entityType", type.name())
+                .addValue("entityId", entityId)
+                .addValue("op", op.name());
+    }
+}
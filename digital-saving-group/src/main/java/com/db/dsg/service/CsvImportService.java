@@ -0,0 +1,535 @@
+package com.db.dsg.service;
+
+import com.db.dsg.dtos.MemberLookupRow;
+import com.db.dsg.model.ChangeLog;
+import com.db.dsg.model.FundEntryType;
+import com.db.dsg.model.ImportJob;
+import com.db.dsg.model.ImportRowError;
+import com.db.dsg.model.Loan;
+import com.db.dsg.model.LoanStatus;
+import com.db.dsg.model.SavingDeposit;
+import com.db.dsg.repository.GroupSavingTotalsRepository;
+import com.db.dsg.repository.ImportJobRepository;
+import com.db.dsg.repository.ImportRowErrorRepository;
+import com.db.dsg.repository.LoanApplicationRepository;
+import com.db.dsg.repository.MemberRepository;
+import com.db.dsg.repository.SavingDepositRepository;
+import com.db.dsg.util.DataDirs;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports historical deposits and loans from CSV. The upload is spooled to disk and parsed as
+ * a stream; rows are written in chunks, each chunk one transaction together with its row
+ * errors, its fund entries, its share of the group totals, exposure and rollups, and the job
+ * checkpoint. Only one chunk is held in memory, and every committed chunk is fully reflected in
+ * the summaries, so a failed or interrupted import leaves nothing to repair and resumes after
+ * the last committed chunk. Members are matched by phone or name through a lookup built once
+ * per import. A file whose content was already submitted to the group is refused.
+ *
+ * <p>Deposits: {@code member} or {@code phone}, {@code amount}, {@code date}, optional {@code remarks}.
+ * Loans: {@code member} or {@code phone}, {@code amount}, {@code status}, {@code application_date},
+ * plus {@code disbursement_date} for disbursed and repaid loans, optional {@code remaining_balance},
+ * {@code repayment_date} and {@code purpose}. Dates are ISO (yyyy-MM-dd).
+ */
+@Service
+public class CsvImportService {
+
+    private static final CSVFormat FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreHeaderCase(true)
+            .setIgnoreEmptyLines(true)
+            .setTrim(true)
+            .build();
+
+    private final ImportJobRepository jobRepo;
+    private final ImportRowErrorRepository errorRepo;
+    private final MemberRepository memberRepo;
+    private final SavingDepositRepository depositRepo;
+    private final LoanApplicationRepository loanRepo;
+    private final GroupSavingTotalsRepository groupTotalsRepo;
+    private final GroupFundService groupFundService;
+    private final MemberExposureService exposureService;
+    private final SavingRollupService rollupService;
+    private final ReportCacheService reportCacheService;
+    private final ChangeLogService changeLog;
+    private final TransactionTemplate tx;
+    private final ThreadPoolExecutor executor;
+    private final Path spoolDir;
+    private final int chunkSize;
+
+    public CsvImportService(ImportJobRepository jobRepo,
+                            ImportRowErrorRepository errorRepo,
+                            MemberRepository memberRepo,
+                            SavingDepositRepository depositRepo,
+                            LoanApplicationRepository loanRepo,
+                            GroupSavingTotalsRepository groupTotalsRepo,
+                            GroupFundService groupFundService,
+                            MemberExposureService exposureService,
+                            SavingRollupService rollupService,
+                            ReportCacheService reportCacheService,
+                            ChangeLogService changeLog,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${dsg.import.pool-size:1}") int poolSize,
+                            @Value("${dsg.import.queue-capacity:10}") int queueCapacity,
+                            @Value("${dsg.import.spool-dir:}") String spoolDir,
+                            @Value("${dsg.import.chunk-size:1000}") int chunkSize) throws IOException {
+        this.jobRepo = jobRepo;
+        this.errorRepo = errorRepo;
+        this.memberRepo = memberRepo;
+        this.depositRepo = depositRepo;
+        this.loanRepo = loanRepo;
+        this.groupTotalsRepo = groupTotalsRepo;
+        this.groupFundService = groupFundService;
+        this.exposureService = exposureService;
+        this.rollupService = rollupService;
+        this.reportCacheService = reportCacheService;
+        this.changeLog = changeLog;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+        // Spooled files outlive the process so a failed or interrupted import can be resumed
+        this.spoolDir = Files.createDirectories(DataDirs.requireDurable(spoolDir, "dsg.import.spool-dir"));
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportJob submit(ImportJob.Type type, Long groupId, MultipartFile file, String username) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Uploaded file is empty");
+        }
+        ImportJob job = new ImportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setGroupId(groupId);
+        job.setType(type);
+        job.setStatus(ImportJob.Status.QUEUED);
+        job.setFileName(file.getOriginalFilename());
+        job.setCreatedBy(username);
+        job.setCreatedAt(LocalDateTime.now());
+
+        Path spool = spoolDir.resolve(job.getId() + ".csv");
+        job.setContentHash(spoolAndHash(file, spool));
+        job.setSpoolPath(spool.toString());
+        Optional<ImportJob> previous = jobRepo.findFirstByGroupIdAndTypeAndContentHash(groupId, type, job.getContentHash());
+        if (previous.isPresent()) {
+            Files.deleteIfExists(spool);
+            throw alreadySubmitted(previous.get());
+        }
+        try {
+            jobRepo.saveAndFlush(job);
+        } catch (DataIntegrityViolationException e) {
+            // The same file uploaded twice at once: the unique key lets only one of them in
+            Files.deleteIfExists(spool);
+            throw new IllegalStateException("This file is already being imported");
+        }
+        enqueue(job);
+        return job;
+    }
+
+    // Continues a failed or interrupted import after its last committed chunk
+    public ImportJob resume(String jobId, Long groupId) {
+        ImportJob job = getJob(jobId, groupId);
+        if (job.getStatus() != ImportJob.Status.FAILED && job.getStatus() != ImportJob.Status.INTERRUPTED) {
+            throw new IllegalStateException("Import job is " + job.getStatus());
+        }
+        job.setStatus(ImportJob.Status.QUEUED);
+        job.setError(null);
+        jobRepo.save(job);
+        enqueue(job);
+        return job;
+    }
+
+    public ImportJob getJob(String jobId, Long groupId) {
+        return jobRepo.findById(jobId)
+                .filter(job -> job.getGroupId().equals(groupId))
+                .orElseThrow(() -> new IllegalArgumentException("Import job not found: " + jobId));
+    }
+
+    public List<ImportRowError> getErrors(String jobId, Long groupId, long afterRow, int size) {
+        getJob(jobId, groupId);
+        return errorRepo.findByJobIdAndRowNumberGreaterThanOrderByRowNumberAsc(jobId, afterRow,
+                PageRequest.of(0, Math.min(Math.max(size, 1), 1000)));
+    }
+
+    // Jobs still queued or running belonged to a previous process; they wait for an explicit resume
+    @EventListener(ApplicationReadyEvent.class)
+    public void markInterrupted() {
+        for (ImportJob job : jobRepo.findByStatusIn(EnumSet.of(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING))) {
+            job.setStatus(ImportJob.Status.INTERRUPTED);
+            jobRepo.save(job);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void enqueue(ImportJob job) {
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            job.setStatus(ImportJob.Status.INTERRUPTED);
+            jobRepo.save(job);
+            throw new IllegalStateException("Import queue is full, resume the job later");
+        }
+    }
+
+    private void run(ImportJob job) {
+        job.setStatus(ImportJob.Status.RUNNING);
+        jobRepo.save(job);
+        try (Reader reader = Files.newBufferedReader(Paths.get(job.getSpoolPath()), StandardCharsets.UTF_8);
+             CSVParser parser = FORMAT.parse(reader)) {
+            checkHeader(job.getType(), parser.getHeaderMap());
+            MemberLookup members = new MemberLookup(memberRepo.findLookupRowsByGroupId(job.getGroupId()));
+
+            long row = 0;
+            Chunk chunk = new Chunk();
+            for (CSVRecord record : parser) {
+                row++;
+                if (row <= job.getRowsProcessed()) {
+                    continue;
+                }
+                try {
+                    Long memberId = members.resolve(value(record, "phone"), value(record, "member"));
+                    if (job.getType() == ImportJob.Type.DEPOSITS) {
+                        chunk.add(parseDeposit(record, memberId));
+                    } else {
+                        chunk.add(parseLoan(record, memberId, job.getGroupId()));
+                    }
+                } catch (IllegalArgumentException e) {
+                    chunk.errors.add(new ImportRowError(null, job.getId(), row, truncate(e.getMessage())));
+                }
+                if (chunk.size() >= chunkSize) {
+                    commit(job, chunk, row);
+                    chunk = new Chunk();
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Import interrupted at row " + job.getRowsProcessed());
+                }
+            }
+            if (chunk.size() > 0) {
+                commit(job, chunk, row);
+            }
+            finish(job);
+        } catch (Exception e) {
+            // Reload so counters from a rolled-back chunk are not saved over the last checkpoint
+            ImportJob failed = jobRepo.findById(job.getId()).orElse(job);
+            failed.setStatus(ImportJob.Status.FAILED);
+            failed.setError(truncate(e.getMessage()));
+            jobRepo.save(failed);
+        }
+    }
+
+    // One transaction: the chunk's rows, its errors, its fund entries, its summary deltas and the checkpoint
+    private void commit(ImportJob job, Chunk chunk, long lastRow) {
+        tx.executeWithoutResult(status -> {
+            depositRepo.saveAll(chunk.deposits);
+            loanRepo.saveAll(chunk.loans);
+            errorRepo.saveAll(chunk.errors);
+
+            Long groupId = job.getGroupId();
+            changeLog.recordDeposits(chunk.deposits, groupId);
+            changeLog.recordLoans(chunk.loans, ChangeLog.Op.CREATED);
+            if (groupFundService.hasFund(groupId)) {
+                String description = "Import " + job.getId() + " rows " + (job.getRowsProcessed() + 1) + "-" + lastRow;
+                if (chunk.deposited.signum() != 0) {
+                    groupFundService.record(groupId, FundEntryType.DEPOSIT, chunk.deposited, description);
+                }
+                if (chunk.disbursed.signum() != 0) {
+                    groupFundService.record(groupId, FundEntryType.DISBURSEMENT, chunk.disbursed.negate(), description);
+                }
+                if (chunk.repaid.signum() != 0) {
+                    groupFundService.record(groupId, FundEntryType.REPAYMENT, chunk.repaid, description);
+                }
+            }
+            if (!chunk.deposits.isEmpty()) {
+                addToGroupTotals(groupId, chunk);
+                exposureService.importedDeposits(groupId, chunk.deposits);
+                rollupService.importedDeposits(groupId, chunk.deposits);
+            }
+            exposureService.importedLoans(groupId, chunk.loans);
+            reportCacheService.invalidateGroup(groupId);
+
+            job.setRowsProcessed(lastRow);
+            job.setRowsImported(job.getRowsImported() + chunk.deposits.size() + chunk.loans.size());
+            job.setRowsFailed(job.getRowsFailed() + chunk.errors.size());
+            jobRepo.save(job);
+        });
+    }
+
+    private void finish(ImportJob job) throws IOException {
+        job.setStatus(ImportJob.Status.DONE);
+        job.setFinishedAt(LocalDateTime.now());
+        jobRepo.save(job);
+        Files.deleteIfExists(Paths.get(job.getSpoolPath()));
+    }
+
+    // Same pattern as single deposits: add in place, or seed from the table, which already holds this chunk
+    private void addToGroupTotals(Long groupId, Chunk chunk) {
+        int count = chunk.deposits.size();
+        if (groupTotalsRepo.addDeposits(groupId, chunk.deposited, count, chunk.lastDepositDate) == 0
+                && groupTotalsRepo.seed(groupId) == 0) {
+            groupTotalsRepo.addDeposits(groupId, chunk.deposited, count, chunk.lastDepositDate);
+        }
+    }
+
+    // Copies the upload to the spool file and returns its SHA-256, which identifies a re-submitted file
+    private static String spoolAndHash(MultipartFile file, Path spool) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static IllegalStateException alreadySubmitted(ImportJob previous) {
+        boolean resumable = previous.getStatus() == ImportJob.Status.FAILED
+                || previous.getStatus() == ImportJob.Status.INTERRUPTED;
+        return new IllegalStateException("This file was already submitted as import " + previous.getId()
+                + " (" + previous.getStatus() + ")" + (resumable ? ", resume that import instead" : ""));
+    }
+
+    private static void checkHeader(ImportJob.Type type, Map<String, Integer> header) {
+        List<String> required = new ArrayList<>(type == ImportJob.Type.DEPOSITS
+                ? List.of("amount", "date")
+                : List.of("amount", "status", "application_date"));
+        required.removeIf(column -> header.keySet().stream().anyMatch(column::equalsIgnoreCase));
+        if (!required.isEmpty()) {
+            throw new IllegalArgumentException("Missing CSV columns: " + required);
+        }
+        if (header.keySet().stream().noneMatch(c -> c.equalsIgnoreCase("member") || c.equalsIgnoreCase("phone"))) {
+            throw new IllegalArgumentException("CSV needs a member or phone column");
+        }
+    }
+
+    private SavingDeposit parseDeposit(CSVRecord record, Long memberId) {
+        SavingDeposit deposit = new SavingDeposit();
+        deposit.setMember(memberRepo.getReferenceById(memberId));
+        deposit.setAmount(positiveAmount(record, "amount"));
+        deposit.setDate(pastDate(record, "date", true));
+        deposit.setRemarks(value(record, "remarks"));
+        return deposit;
+    }
+
+    // Imported loans carry no repayment schedule; they are handled like loans from before schedules existed
+    private Loan parseLoan(CSVRecord record, Long memberId, Long groupId) {
+        Loan loan = new Loan();
+        loan.setMember(memberRepo.getReferenceById(memberId));
+        loan.setGroupId(groupId);
+        loan.setAmount(positiveAmount(record, "amount"));
+        loan.setPurpose(value(record, "purpose"));
+        String status = value(record, "status");
+        try {
+            loan.setStatus(LoanStatus.valueOf(String.valueOf(status).toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid status: " + status);
+        }
+        loan.setApplicationDate(pastDate(record, "application_date", true));
+
+        boolean disbursed = loan.getStatus() == LoanStatus.DISBURSED || loan.getStatus() == LoanStatus.REPAID;
+        if (disbursed) {
+            loan.setDisbursementDate(pastDate(record, "disbursement_date", true));
+        }
+        BigDecimal remaining = value(record, "remaining_balance") != null
+                ? amount(record, "remaining_balance")
+                : loan.getStatus() == LoanStatus.REPAID ? BigDecimal.ZERO : loan.getAmount();
+        if (remaining.signum() < 0 || remaining.compareTo(loan.getAmount()) > 0) {
+            throw new IllegalArgumentException("remaining_balance must be between 0 and amount");
+        }
+        if (loan.getStatus() == LoanStatus.REPAID) {
+            if (remaining.signum() != 0) {
+                throw new IllegalArgumentException("A REPAID loan cannot have a remaining balance");
+            }
+            loan.setRepaymentDate(pastDate(record, "repayment_date", false));
+        }
+        loan.setRemainingBalance(remaining);
+        return loan;
+    }
+
+    private static String value(CSVRecord record, String column) {
+        if (!record.isMapped(column) || !record.isSet(column)) {
+            return null;
+        }
+        String value = record.get(column);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static BigDecimal amount(CSVRecord record, String column) {
+        String value = value(record, column);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        try {
+            return new BigDecimal(value.replace(",", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static BigDecimal positiveAmount(CSVRecord record, String column) {
+        BigDecimal amount = amount(record, column);
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException(column + " must be positive");
+        }
+        return amount;
+    }
+
+    private static LocalDate pastDate(CSVRecord record, String column, boolean required) {
+        String value = value(record, column);
+        if (value == null) {
+            if (required) {
+                throw new IllegalArgumentException("Missing " + column);
+            }
+            return null;
+        }
+        try {
+            LocalDate date = LocalDate.parse(value);
+            if (date.isAfter(LocalDate.now())) {
+                throw new IllegalArgumentException(column + " is in the future: " + value);
+            }
+            return date;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + " (expected yyyy-MM-dd): " + value);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+
+    // Rows parsed since the last commit, with their fund totals
+    private static class Chunk {
+        final List<SavingDeposit> deposits = new ArrayList<>();
+        final List<Loan> loans = new ArrayList<>();
+        final List<ImportRowError> errors = new ArrayList<>();
+        BigDecimal deposited = BigDecimal.ZERO;
+        BigDecimal disbursed = BigDecimal.ZERO;
+        BigDecimal repaid = BigDecimal.ZERO;
+        LocalDate lastDepositDate;
+
+        void add(SavingDeposit deposit) {
+            deposits.add(deposit);
+            deposited = deposited.add(deposit.getAmount());
+            if (lastDepositDate == null || deposit.getDate().isAfter(lastDepositDate)) {
+                lastDepositDate = deposit.getDate();
+            }
+        }
+
+        // Matches reconciliation: disbursed loans leave the fund, repaid principal comes back
+        void add(Loan loan) {
+            loans.add(loan);
+            if (loan.getDisbursementDate() != null) {
+                disbursed = disbursed.add(loan.getAmount());
+                repaid = repaid.add(loan.getAmount().subtract(loan.getRemainingBalance()));
+            }
+        }
+
+        int size() {
+            return deposits.size() + loans.size() + errors.size();
+        }
+    }
+
+    // Phone (last ten digits) first, then case-insensitive name; a name shared by two members is ambiguous
+    private static class MemberLookup {
+        private static final Long AMBIGUOUS = -1L;
+
+        private final Map<String, Long> byPhone = new HashMap<>();
+        private final Map<String, Long> byName = new HashMap<>();
+
+        MemberLookup(List<MemberLookupRow> rows) {
+            for (MemberLookupRow row : rows) {
+                String phone = normalizePhone(row.getPhone());
+                if (phone != null) {
+                    byPhone.merge(phone, row.getId(), (a, b) -> AMBIGUOUS);
+                }
+                String name = normalizeName(row.getName());
+                if (name != null) {
+                    byName.merge(name, row.getId(), (a, b) -> AMBIGUOUS);
+                }
+            }
+        }
+
+        Long resolve(String phone, String name) {
+            String key = normalizePhone(phone);
+            Long id = key != null ? byPhone.get(key) : null;
+            if (id == null) {
+                key = normalizeName(name);
+                id = key != null ? byName.get(key) : null;
+            }
+            if (id == null) {
+                throw new IllegalArgumentException("No member in the group matches " + (phone != null ? phone : name));
+            }
+            if (AMBIGUOUS.equals(id)) {
+                throw new IllegalArgumentException("More than one member matches " + (phone != null ? phone : name));
+            }
+            return id;
+        }
+
+        private static String normalizePhone(String phone) {
+            if (phone == null) {
+                return null;
+            }
+            String digits = phone.replaceAll("\\D", "");
+            if (digits.isEmpty()) {
+                return null;
+            }
+            return digits.length() > 10 ? digits.substring(digits.length() - 10) : digits;
+        }
+
+        private static String normalizeName(String name) {
+            if (name == null || name.isBlank()) {
+                return null;
+            }
+            return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.db.dsg.service;
+
+import com.db.dsg.dtos.ExportJob;
+import com.db.dsg.model.ExportFormat;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs report exports off the request thread. Jobs execute on a bounded pool, spool their
+ * output to a local file and are kept for a TTL after they finish.
+ */
+@Service
+public class ExportJobService {
+
+    private final ExportService exportService;
+    private final ThreadPoolExecutor executor;
+    private final Path spoolDir;
+    private final Duration ttl;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ExportJobService(ExportService exportService,
+                            @Value("${dsg.export.jobs.pool-size:2}") int poolSize,
+                            @Value("${dsg.export.jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${dsg.export.jobs.spool-dir:${java.io.tmpdir}/dsg-exports}") String spoolDir,
+                            @Value("${dsg.export.jobs.ttl:PT1H}") Duration ttl) throws IOException {
+        this.exportService = exportService;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+        this.spoolDir = Files.createDirectories(Paths.get(spoolDir));
+        this.ttl = ttl;
+    }
+
+    public ExportJob submit(ExportJob.ReportType reportType, ExportFormat format, Long groupId,
+                            LocalDate from, LocalDate to) {
+        ExportJob job = new ExportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setReportType(reportType);
+        job.setFormat(format);
+        job.setGroupId(groupId);
+        job.setFrom(from);
+        job.setTo(to);
+
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new IllegalStateException("Export queue is full, try again later");
+        }
+        return job;
+    }
+
+    public ExportJob getJob(String jobId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Export job not found or expired: " + jobId);
+        }
+        return job;
+    }
+
+    public ExportJob getFinishedJob(String jobId) {
+        ExportJob job = getJob(jobId);
+        if (job.getStatus() != ExportJob.Status.DONE) {
+            throw new IllegalStateException("Export job is " + job.getStatus());
+        }
+        return job;
+    }
+
+    @Scheduled(fixedDelayString = "${dsg.export.jobs.cleanup-interval-ms:60000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        jobs.values().removeIf(job -> {
+            if (job.getExpiresAt() == null || job.getExpiresAt().isAfter(now)) {
+                return false;
+            }
+            deleteQuietly(job.getFile());
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ExportJob job) {
+        job.setStatus(ExportJob.Status.RUNNING);
+        Path file = spoolDir.resolve(job.getId() + "." + job.getFormat().getExtension());
+        boolean complete = false;
+        try {
+            try (OutputStream out = new ProgressOutputStream(new BufferedOutputStream(Files.newOutputStream(file)), job)) {
+                write(job, out);
+            }
+            // Set after the close: it flushes the buffer and can still fail, e.g. on a full disk
+            complete = true;
+        } catch (Exception e) {
+            job.setError(e.getMessage());
+            job.setStatus(ExportJob.Status.FAILED);
+        } finally {
+            if (!complete) deleteQuietly(file);
+        }
+        if (complete) {
+            job.setFile(file);
+            job.setStatus(ExportJob.Status.DONE);
+        }
+        job.setFinishedAt(LocalDateTime.now());
+        job.setExpiresAt(job.getFinishedAt().plus(ttl));
+    }
+
+    private void write(ExportJob job, OutputStream out) throws IOException {
+        Long groupId = job.getGroupId();
+        LocalDate from = job.getFrom();
+        LocalDate to = job.getTo();
+        boolean pdf = job.getFormat() == ExportFormat.PDF;
+
+        ExportService.ReportWriter report = switch (job.getReportType()) {
+            case SAVINGS -> {
+                if (groupId == null) {
+                    yield pdf ? o -> exportService.writeAllSavingsPDF(from, to, o)
+                            : o -> exportService.writeAllSavingsCSV(from, to, o);
+                }
+                yield pdf ? o -> exportService.writeSavingsPDF(groupId, from, to, o)
+                        : o -> exportService.writeSavingsCSV(groupId, from, to, o);
+            }
+            case REPAYMENTS -> {
+                if (groupId == null) {
+                    yield pdf ? o -> exportService.writeAllRepaymentsPDF(from, to, o)
+                            : o -> exportService.writeAllRepaymentsCSV(from, to, o);
+                }
+                yield pdf ? o -> exportService.writeRepaymentsPDF(groupId, from, to, o)
+                        : o -> exportService.writeRepaymentsCSV(groupId, from, to, o);
+            }
+        };
+        String entryName = job.getReportType().name().toLowerCase() + ".csv";
+        exportService.writeCompressed(job.getFormat(), entryName, report, out);
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // best effort, the spool directory lives under the temp dir
+        }
+    }
+
+    // Publishes the number of bytes spooled so far as job progress
+    private static class ProgressOutputStream extends FilterOutputStream {
+        private final ExportJob job;
+
+        ProgressOutputStream(OutputStream out, ExportJob job) {
+            super(out);
+            this.job = job;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            job.setBytesWritten(job.getBytesWritten() + 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            job.setBytesWritten(job.getBytesWritten() + len);
+        }
+    }
+}
@@ -1,25 +1,34 @@
 package com.db.dsg.service;
 
-import com.db.dsg.model.Loan;
-import com.db.dsg.model.SavingDeposit;
+import com.db.dsg.dtos.LoanExportRow;
+import com.db.dsg.dtos.RepaymentExportRow;
+import com.db.dsg.dtos.SavingExportRow;
+import com.db.dsg.model.ExportFormat;
+import com.db.dsg.model.ProfitLossRecord;
+import com.db.dsg.repository.ChangeLogRepository;
 import com.db.dsg.repository.LoanApplicationRepository;
 import com.db.dsg.repository.LoanRepaymentRepository;
 import com.db.dsg.repository.MemberRepository;
+import com.db.dsg.repository.ProfitLossRecordRepository;
 import com.db.dsg.repository.SavingDepositRepository;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.Cell;
-import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.layout.element.Table;
-import com.itextpdf.layout.properties.UnitValue;
+import com.db.dsg.util.PdfReportWriter;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 @RequiredArgsConstructor
@@ -29,126 +38,205 @@ public class ExportService {
     private final LoanRepaymentRepository repaymentRepo;
     private final MemberRepository memberRepo;
     private final LoanApplicationRepository loanRepo;
+    private final ProfitLossRecordRepository profitLossRepo;
+    private final ChangeLogRepository changeLogRepo;
 
     // ----------------- Group-scoped ---------------------
 
-    public byte[] exportSavingsAsCSV(Long groupId, LocalDate from, LocalDate to) {
-        List<SavingDeposit> deposits = savingRepo.findByMember_Group_IdAndDateBetween(groupId, from, to);
-        StringBuilder csv = new StringBuilder("Member,Amount,Date,Description\n");
-        for (SavingDeposit s : deposits) {
-            csv.append(s.getMember().getName()).append(",")
-                    .append(s.getAmount()).append(",")
-                    .append(s.getDate()).append(",").append("\n");
+    @Transactional(readOnly = true)
+    public void writeSavingsCSV(Long groupId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (Stream<SavingExportRow> rows = savingRepo.streamExportRows(groupId, from, to)) {
+            CSVPrinter csv = csvPrinter(out, "Member", "Amount", "Date", "Description");
+            for (SavingExportRow r : (Iterable<SavingExportRow>) rows::iterator) {
+                csv.printRecord(r.getMemberName(), r.getAmount(), r.getDate(), r.getRemarks());
+            }
+            csv.flush();
         }
-        return csv.toString().getBytes();
-    }
-
-    public byte[] exportRepaymentsAsCSV(Long groupId, LocalDate from, LocalDate to) {
-        List<Loan> loans = loanRepo.findByMember_Group_IdAndRepaymentDateBetween(groupId, from, to);
-        StringBuilder csv = new StringBuilder("Member,Amount,Remaining,Status,Disbursed,Repaid\n");
-        for (Loan l : loans) {
-            csv.append(l.getMember().getName()).append(",")
-                    .append(l.getAmount()).append(",")
-                    .append(l.getRemainingBalance()).append(",")
-                    .append(l.getStatus()).append(",")
-                    .append(l.getDisbursementDate()).append(",")
-                    .append(l.getRepaymentDate()).append("\n");
+    }
+
+    @Transactional(readOnly = true)
+    public void writeRepaymentsCSV(Long groupId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (Stream<LoanExportRow> rows = loanRepo.streamRepaymentExportRows(groupId, from, to)) {
+            writeLoansCSV(rows, out);
         }
-        return csv.toString().getBytes();
     }
 
-    public byte[] exportSavingsAsPDF(Long groupId, LocalDate from, LocalDate to) throws Exception {
-        List<SavingDeposit> deposits = savingRepo.findByMember_Group_IdAndDateBetween(groupId, from, to);
-        return generateSavingsPdf("Savings Deposit Report", deposits);
+    @Transactional(readOnly = true)
+    public void writeSavingsPDF(Long groupId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (Stream<SavingExportRow> rows = savingRepo.streamExportRows(groupId, from, to)) {
+            writeSavingsPdf("Savings Deposit Report", rows, out);
+        }
     }
 
-    public byte[] exportRepaymentsAsPDF(Long groupId, LocalDate from, LocalDate to) throws Exception {
-        List<Loan> loans = loanRepo.findByMember_Group_IdAndRepaymentDateBetween(groupId, from, to);
-        return generateLoanPdf("Loan Repayment Report", loans);
+    @Transactional(readOnly = true)
+    public void writeRepaymentsPDF(Long groupId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (Stream<LoanExportRow> rows = loanRepo.streamRepaymentExportRows(groupId, from, to)) {
+            writeLoanPdf("Loan Repayment Report", rows, out);
+        }
     }
 
     // ----------------- All-groups (admin) ---------------------
 
-    public byte[] exportAllSavingsAsCSV(LocalDate from, LocalDate to) {
-        List<SavingDeposit> deposits = savingRepo.findByDateBetween(from, to);
-        StringBuilder csv = new StringBuilder("Member,Group,Amount,Date,Description\n");
-        for (SavingDeposit s : deposits) {
-            csv.append(s.getMember().getName()).append(",")
-                    .append(s.getMember().getGroup().getName()).append(",")
-                    .append(s.getAmount()).append(",")
-                    .append(s.getDate()).append(",").append("\n");
+    @Transactional(readOnly = true)
+    public void writeAllSavingsCSV(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (Stream<SavingExportRow> rows = savingRepo.streamAllExportRows(from, to)) {
+            CSVPrinter csv = csvPrinter(out, "Member", "Group", "Amount", "Date", "Description");
+            for (SavingExportRow r : (Iterable<SavingExportRow>) rows::iterator) {
+                csv.printRecord(r.getMemberName(), r.getGroupName(), r.getAmount(), r.getDate(), r.getRemarks());
+            }
+            csv.flush();
         }
-        return csv.toString().getBytes();
     }
 
-    public byte[] exportAllSavingsAsPDF(LocalDate from, LocalDate to) throws Exception {
-        List<SavingDeposit> deposits = savingRepo.findByDateBetween(from, to);
-        return generateSavingsPdf("All Group Savings Report", deposits);
+    @Transactional(readOnly = true)
+    public void writeAllRepaymentsCSV(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (Stream<LoanExportRow> rows = loanRepo.streamAllRepaymentExportRows(from, to)) {
+            writeLoansCSV(rows, out);
+        }
     }
 
-    // ----------------- Shared PDF methods ---------------------
+    @Transactional(readOnly = true)
+    public void writeAllSavingsPDF(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (Stream<SavingExportRow> rows = savingRepo.streamAllExportRows(from, to)) {
+            writeSavingsPdf("All Group Savings Report", rows, out);
+        }
+    }
 
-    public byte[] generateLoanPdf(String title, List<Loan> loans) throws IOException {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
+    @Transactional(readOnly = true)
+    public void writeAllRepaymentsPDF(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (Stream<LoanExportRow> rows = loanRepo.streamAllRepaymentExportRows(from, to)) {
+            writeLoanPdf("All Group Loan Repayment Report", rows, out);
+        }
+    }
 
-        PdfWriter writer = new PdfWriter(out);
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document doc = new Document(pdfDoc);
+    // ----------------- Delta (watermark) ---------------------
 
-        doc.add(new Paragraph(title).setBold().setFontSize(14));
+    // Oldest transaction still running; a delta covers rows written by transactions in
+    // [fromTx, watermark), all of which have finished, so a slow writer holding a lower id
+    // than a committed one is picked up by the next run instead of being skipped
+    public long currentWatermark() {
+        return changeLogRepo.findCompletedTxWatermark();
+    }
 
-        Table table = new Table(UnitValue.createPercentArray(new float[]{2, 2, 2, 2, 2, 2}));
-        addHeader(table, "Member", "Amount", "Remaining", "Status", "Disbursed", "Repaid");
+    @Transactional(readOnly = true)
+    public void writeSavingsDeltaCSV(Long groupId, long fromTx, long watermark, OutputStream out) throws IOException {
+        try (Stream<SavingExportRow> rows = savingRepo.streamExportRowsBetweenTx(fromTx, watermark, groupId)) {
+            CSVPrinter csv = csvPrinter(out, "Id", "Member", "Group", "Amount", "Date", "Description");
+            for (SavingExportRow r : (Iterable<SavingExportRow>) rows::iterator) {
+                csv.printRecord(r.getId(), r.getMemberName(), r.getGroupName(), r.getAmount(), r.getDate(), r.getRemarks());
+            }
+            csv.flush();
+        }
+    }
 
-        for (Loan l : loans) {
-            table.addCell(new Cell().add(new Paragraph(l.getMember().getName())));
-            table.addCell(new Cell().add(new Paragraph(l.getAmount().toString())));
-            table.addCell(new Cell().add(new Paragraph(l.getRemainingBalance().toString())));
-            table.addCell(new Cell().add(new Paragraph(l.getStatus().name())));
-            table.addCell(new Cell().add(new Paragraph(l.getDisbursementDate() != null ? l.getDisbursementDate().toString() : "-")));
-            table.addCell(new Cell().add(new Paragraph(l.getRepaymentDate() != null ? l.getRepaymentDate().toString() : "-")));
+    @Transactional(readOnly = true)
+    public void writeRepaymentsDeltaCSV(Long groupId, long fromTx, long watermark, OutputStream out) throws IOException {
+        try (Stream<RepaymentExportRow> rows = repaymentRepo.streamExportRowsBetweenTx(fromTx, watermark, groupId)) {
+            CSVPrinter csv = csvPrinter(out, "Id", "Loan", "Member", "Group", "Amount", "Date");
+            for (RepaymentExportRow r : (Iterable<RepaymentExportRow>) rows::iterator) {
+                csv.printRecord(r.getId(), r.getLoanId(), r.getMemberName(), r.getGroupName(), r.getAmount(), r.getDate());
+            }
+            csv.flush();
         }
+    }
 
-        doc.add(table);
-        doc.close();
-        return out.toByteArray();
+    // ----------------- Compressed / bundled ---------------------
+
+    @FunctionalInterface
+    public interface ReportWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Compresses while the report is being written; PDF and plain CSV pass through untouched.
+     */
+    public void writeCompressed(ExportFormat format, String entryName, ReportWriter report, OutputStream out) throws IOException {
+        switch (format) {
+            case CSV_GZ -> {
+                GZIPOutputStream gzip = new GZIPOutputStream(out, 8192);
+                report.writeTo(gzip);
+                gzip.finish();
+            }
+            case ZIP -> {
+                ZipOutputStream zip = new ZipOutputStream(out);
+                zip.putNextEntry(new ZipEntry(entryName));
+                report.writeTo(zip);
+                zip.closeEntry();
+                zip.finish();
+            }
+            default -> report.writeTo(out);
+        }
+        out.flush();
     }
 
-    public byte[] generateSavingsPdf(String title, List<SavingDeposit> deposits) throws IOException {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // ✅ Savings, repayments and P&L for one group in a single archive
+    @Transactional(readOnly = true)
+    public void writeGroupBundle(Long groupId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
 
-        PdfWriter writer = new PdfWriter(out);
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document doc = new Document(pdfDoc);
+        zip.putNextEntry(new ZipEntry("savings.csv"));
+        writeSavingsCSV(groupId, from, to, zip);
+        zip.closeEntry();
 
-        // Title
-        doc.add(new Paragraph(title).setBold().setFontSize(14).setMarginBottom(10));
+        zip.putNextEntry(new ZipEntry("repayments.csv"));
+        writeRepaymentsCSV(groupId, from, to, zip);
+        zip.closeEntry();
 
-        // Table with 4 columns: Member, Amount, Date, Description
-        Table table = new Table(UnitValue.createPercentArray(new float[]{2, 2, 2, 4})).useAllAvailableWidth();
+        zip.putNextEntry(new ZipEntry("profit_loss.csv"));
+        writeProfitLossCSV(groupId, from, to, zip);
+        zip.closeEntry();
 
-        // Header
-        addHeader(table, "Member", "Amount", "Date", "Description");
+        zip.finish();
+        out.flush();
+    }
+
+    @Transactional(readOnly = true)
+    public void writeProfitLossCSV(Long groupId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (Stream<ProfitLossRecord> records = profitLossRepo.streamByGroup_IdAndDateBetweenOrderByDateAsc(groupId, from, to)) {
+            CSVPrinter csv = csvPrinter(out, "Date", "Principal Paid", "Interest Earned", "Interest Accrued", "Loss", "Description");
+            for (ProfitLossRecord r : (Iterable<ProfitLossRecord>) records::iterator) {
+                csv.printRecord(r.getDate(), r.getPrincipalPaid(), r.getInterestEarned(), r.getInterestAccrued(),
+                        r.getLossAmount(), r.getDescription());
+            }
+            csv.flush();
+        }
+    }
 
-        // Rows
-        for (SavingDeposit s : deposits) {
-            table.addCell(new Cell().add(new Paragraph(s.getMember().getName())));
-            table.addCell(new Cell().add(new Paragraph(s.getAmount().toString())));
-            table.addCell(new Cell().add(new Paragraph(s.getDate().toString())));
+    // ----------------- Shared CSV methods ---------------------
 
+    private void writeLoansCSV(Stream<LoanExportRow> rows, OutputStream out) throws IOException {
+        CSVPrinter csv = csvPrinter(out, "Member", "Amount", "Remaining", "Status", "Disbursed", "Repaid");
+        for (LoanExportRow r : (Iterable<LoanExportRow>) rows::iterator) {
+            csv.printRecord(r.getMemberName(), r.getAmount(), r.getRemainingBalance(),
+                    r.getStatus(), r.getDisbursementDate(), r.getRepaymentDate());
         }
+        csv.flush();
+    }
+
+    // Rows are flushed straight to the caller's stream; the stream itself is left open
+    static CSVPrinter csvPrinter(OutputStream out, String... headers) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        return new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(headers).build());
+    }
 
-        doc.add(table);
-        doc.close();
-        return out.toByteArray();
+    // ----------------- Shared PDF methods ---------------------
+
+    private void writeLoanPdf(String title, Stream<LoanExportRow> rows, OutputStream out) throws IOException {
+        try (PdfReportWriter pdf = new PdfReportWriter(out, title, new float[]{2, 2, 2, 2, 2, 2},
+                "Member", "Amount", "Remaining", "Status", "Disbursed", "Repaid")) {
+            for (LoanExportRow r : (Iterable<LoanExportRow>) rows::iterator) {
+                pdf.addRow(r.getMemberName(), r.getAmount(), r.getRemainingBalance(),
+                        r.getStatus(), r.getDisbursementDate(), r.getRepaymentDate());
+            }
+        }
     }
 
-    private void addHeader(Table table, String... headers) {
-        for (String h : headers) {
-            Cell headerCell = new Cell()
-                    .add(new Paragraph(h).setBold())
-                    .setBackgroundColor(com.itextpdf.kernel.colors.ColorConstants.LIGHT_GRAY);
-            table.addHeaderCell(headerCell);
+    private void writeSavingsPdf(String title, Stream<SavingExportRow> rows, OutputStream out) throws IOException {
+        try (PdfReportWriter pdf = new PdfReportWriter(out, title, new float[]{2, 2, 2, 4},
+                "Member", "Amount", "Date", "Description")) {
+            for (SavingExportRow r : (Iterable<SavingExportRow>) rows::iterator) {
+                pdf.addRow(r.getMemberName(), r.getAmount(), r.getDate(), r.getRemarks());
+            }
         }
     }
 }
@@ -0,0 +1,190 @@
+package com.db.dsg.service;
+
+import com.db.dsg.dtos.FundDrift;
+import com.db.dsg.dtos.FundReconciliationReport;
+import com.db.dsg.dtos.GroupAmount;
+import com.db.dsg.dtos.GroupEntryTotal;
+import com.db.dsg.dtos.GroupFundTotals;
+import com.db.dsg.model.FundEntryType;
+import com.db.dsg.model.LoanStatus;
+import com.db.dsg.repository.FundLedgerEntryRepository;
+import com.db.dsg.repository.GroupFundRepository;
+import com.db.dsg.repository.GroupRepository;
+import com.db.dsg.repository.LoanApplicationRepository;
+import com.db.dsg.repository.SavingDepositRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Recomputes every group's fund balance from the source tables and compares it with the fund:
+ * deposits - disbursed principal + repaid principal + profit - loss. Repaid principal is taken
+ * as amount - remainingBalance of paid-out loans because not every repayment path writes a
+ * LoanRepayment row; profit and loss come from the fund itself, as they have no source table
+ * (ProfitLossRecord only splits repayments that are already counted). Groups are processed in
+ * id-range chunks on a pool; each chunk's sums are GROUP BY queries in one repeatable-read
+ * transaction, so only per-group totals reach the heap and the chunk sees a single snapshot.
+ * With write-behind enabled, a group whose deltas are still buffered in memory is skipped:
+ * its source rows may already be visible while its fund movements are not.
+ */
+@Service
+public class FundReconciliationService {
+
+    private static final Set<LoanStatus> PAID_OUT = Set.of(LoanStatus.DISBURSED, LoanStatus.REPAID);
+    private static final String REPAIR_DESCRIPTION = "Reconciliation repair";
+
+    private final SavingDepositRepository savingRepo;
+    private final LoanApplicationRepository loanRepo;
+    private final GroupFundRepository groupFundRepo;
+    private final FundLedgerEntryRepository ledgerRepo;
+    private final GroupRepository groupRepo;
+    private final GroupFundService groupFundService;
+    private final FundWriteBehindService writeBehind;
+    private final TransactionTemplate snapshotTx;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public FundReconciliationService(SavingDepositRepository savingRepo,
+                                     LoanApplicationRepository loanRepo,
+                                     GroupFundRepository groupFundRepo,
+                                     FundLedgerEntryRepository ledgerRepo,
+                                     GroupRepository groupRepo,
+                                     GroupFundService groupFundService,
+                                     FundWriteBehindService writeBehind,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${dsg.fund.reconcile.chunk-size:1000}") int chunkSize,
+                                     @Value("${dsg.fund.reconcile.pool-size:4}") int poolSize) {
+        this.savingRepo = savingRepo;
+        this.loanRepo = loanRepo;
+        this.groupFundRepo = groupFundRepo;
+        this.ledgerRepo = ledgerRepo;
+        this.groupRepo = groupRepo;
+        this.groupFundService = groupFundService;
+        this.writeBehind = writeBehind;
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setReadOnly(true);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.pool = new ForkJoinPool(poolSize);
+        this.chunkSize = chunkSize;
+    }
+
+    // Repair records the drift as an ADJUSTMENT entry rather than overwriting the balance,
+    // so movements that land between the check and the repair are not lost
+    public FundReconciliationReport reconcile(boolean repair) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        writeBehind.flush();
+
+        Long minId = groupRepo.findMinId();
+        Long maxId = groupRepo.findMaxId();
+        List<ForkJoinTask<ChunkResult>> tasks = new ArrayList<>();
+        if (minId != null) {
+            for (long start = minId; start <= maxId; start += chunkSize) {
+                long chunkFrom = start;
+                long chunkTo = Math.min(start + chunkSize - 1, maxId);
+                tasks.add(pool.submit(() -> writeBehind.holdingFlush(
+                        () -> snapshotTx.execute(status -> checkChunk(chunkFrom, chunkTo)))));
+            }
+        }
+
+        int groupsChecked = 0;
+        BigDecimal totalAbsoluteDrift = BigDecimal.ZERO;
+        List<FundDrift> drifted = new ArrayList<>();
+        List<Long> skipped = new ArrayList<>();
+        for (ForkJoinTask<ChunkResult> task : tasks) {
+            ChunkResult result = task.join();
+            groupsChecked += result.groupsChecked();
+            skipped.addAll(result.skipped());
+            for (FundDrift drift : result.drifted()) {
+                if (repair) {
+                    groupFundService.record(drift.getGroupId(), FundEntryType.ADJUSTMENT,
+                            drift.getDrift().negate(), REPAIR_DESCRIPTION);
+                    drift.setRepaired(true);
+                }
+                totalAbsoluteDrift = totalAbsoluteDrift.add(drift.getDrift().abs());
+                drifted.add(drift);
+            }
+        }
+        return new FundReconciliationReport(startedAt, LocalDateTime.now(), groupsChecked, totalAbsoluteDrift,
+                drifted, skipped);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private ChunkResult checkChunk(long fromGroupId, long toGroupId) {
+        Map<Long, BigDecimal> deposits = toMap(savingRepo.sumByGroupRange(fromGroupId, toGroupId));
+        Map<Long, BigDecimal> disbursed = toMap(loanRepo.sumAmountByGroupRange(fromGroupId, toGroupId, PAID_OUT));
+        Map<Long, BigDecimal> repaid = toMap(loanRepo.sumRepaidByGroupRange(fromGroupId, toGroupId, PAID_OUT));
+
+        Map<Long, GroupFundTotals> funds = new HashMap<>();
+        for (GroupFundTotals fund : groupFundRepo.findTotalsByGroupRange(fromGroupId, toGroupId)) {
+            funds.put(fund.getGroupId(), fund);
+        }
+        // Ledger entries not yet folded into the fund row count towards balance, profit and loss
+        for (GroupEntryTotal pending : ledgerRepo.sumPendingByGroupRange(fromGroupId, toGroupId)) {
+            GroupFundTotals fund = funds.get(pending.getGroupId());
+            if (fund == null) {
+                continue;
+            }
+            fund.setBalance(fund.getBalance().add(pending.getAmount()));
+            if (pending.getType() == FundEntryType.PROFIT) {
+                fund.setProfit(fund.getProfit().add(pending.getAmount()));
+            } else if (pending.getType() == FundEntryType.LOSS) {
+                fund.setLoss(fund.getLoss().subtract(pending.getAmount()));
+            }
+        }
+
+        // Read last: no flush runs until the chunk is done, so every delta that was buffered when
+        // the snapshot was taken is still listed (plus some newer ones, which only widens the skip)
+        Set<Long> buffered = writeBehind.bufferedGroupIds();
+        List<Long> skipped = new ArrayList<>();
+        List<FundDrift> drifted = new ArrayList<>();
+        for (GroupFundTotals fund : funds.values()) {
+            Long groupId = fund.getGroupId();
+            if (buffered.contains(groupId)) {
+                skipped.add(groupId);
+                continue;
+            }
+            BigDecimal expected = deposits.getOrDefault(groupId, BigDecimal.ZERO)
+                    .subtract(disbursed.getOrDefault(groupId, BigDecimal.ZERO))
+                    .add(repaid.getOrDefault(groupId, BigDecimal.ZERO))
+                    .add(fund.getProfit())
+                    .subtract(fund.getLoss());
+            BigDecimal drift = fund.getBalance().subtract(expected);
+            if (drift.signum() != 0) {
+                drifted.add(new FundDrift(groupId, expected, fund.getBalance(), drift, false));
+            }
+        }
+        drifted.sort((a, b) -> a.getGroupId().compareTo(b.getGroupId()));
+        skipped.sort(null);
+        return new ChunkResult(funds.size() - skipped.size(), drifted, skipped);
+    }
+
+    private static Map<Long, BigDecimal> toMap(List<GroupAmount> amounts) {
+        Map<Long, BigDecimal> map = new HashMap<>();
+        for (GroupAmount amount : amounts) {
+            if (amount.getAmount() != null) {
+                map.put(amount.getGroupId(), amount.getAmount());
+            }
+        }
+        return map;
+    }
+
+    private record ChunkResult(int groupsChecked, List<FundDrift> drifted, List<Long> skipped) {
+    }
+}
@@ -0,0 +1,334 @@
+package com.db.dsg.service;
+
+import com.db.dsg.dtos.FundEntryTotal;
+import com.db.dsg.model.FundEntryType;
+import com.db.dsg.model.FundLedgerBatch;
+import com.db.dsg.model.FundLedgerEntry;
+import com.db.dsg.repository.FundLedgerBatchRepository;
+import com.db.dsg.repository.FundLedgerEntryRepository;
+import com.db.dsg.repository.GroupRepository;
+import com.db.dsg.util.AppendOnlyJournal;
+import com.db.dsg.util.DataDirs;
+import com.db.dsg.util.Paise;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Optional write-behind buffer for fund movements ({@code dsg.fund.write-behind.enabled}).
+ * Each delta is journalled to local disk inside the writing transaction, before it commits, and
+ * added to a per-group, per-type counter once it does; a scheduled flush turns every counter
+ * into a single ledger entry and inserts them as one batch. Journal segments still on disk at
+ * startup are replayed, keeping only deltas whose transaction committed, unless their batch
+ * id shows they already reached the ledger.
+ */
+@Service
+public class FundWriteBehindService {
+
+    private static final String BATCH_PREFIX = "Write-behind ";
+    // Journalled for deltas recorded outside a transaction; they always count
+    private static final long NO_TX = 0;
+
+    private final FundLedgerEntryRepository ledgerRepository;
+    private final FundLedgerBatchRepository batchRepository;
+    private final GroupRepository groupRepository;
+    private final TransactionIdService txIds;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final AppendOnlyJournal journal;
+
+    // Appenders share the read side; the flusher takes the write side only to seal the segment
+    private final ReadWriteLock appendLock = new ReentrantReadWriteLock();
+    // Balance reads share the read side; the flusher holds the write side until its batches commit,
+    // so a reader sees each delta either in memory or in the ledger, never both or neither
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private volatile Segment current;
+    private final Deque<Segment> unflushed = new ArrayDeque<>();
+
+    public FundWriteBehindService(FundLedgerEntryRepository ledgerRepository,
+                                  FundLedgerBatchRepository batchRepository,
+                                  GroupRepository groupRepository,
+                                  TransactionIdService txIds,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${dsg.fund.write-behind.enabled:false}") boolean enabled,
+                                  @Value("${dsg.fund.write-behind.journal-dir:}") String journalDir,
+                                  @Value("${dsg.fund.write-behind.fsync:true}") boolean fsync) throws IOException {
+        this.ledgerRepository = ledgerRepository;
+        this.batchRepository = batchRepository;
+        this.groupRepository = groupRepository;
+        this.txIds = txIds;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.journal = enabled
+                ? new AppendOnlyJournal(DataDirs.requireDurable(journalDir, "dsg.fund.write-behind.journal-dir"), "fund", fsync)
+                : null;
+        this.current = enabled ? new Segment(null, journal.currentId()) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Inside a transaction the delta is on disk before the commit and counted only if it commits;
+    // the transaction id is looked up on its first delta only
+    public void add(Long groupId, FundEntryType type, BigDecimal amount) {
+        Key key = new Key(groupId, type);
+        long paise = Paise.of(amount);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(key, paise, NO_TX).complete(key, paise, true);
+            return;
+        }
+        Segment segment = append(key, paise, txIds.current());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                segment.complete(key, paise, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    // Runs the reader with the group's buffered totals while no flush can move them into the ledger
+    public <T> T read(Long groupId, Function<List<FundEntryTotal>, T> reader) {
+        if (!enabled) {
+            return reader.apply(List.of());
+        }
+        flushLock.readLock().lock();
+        appendLock.readLock().lock();
+        try {
+            List<FundEntryTotal> pending = new ArrayList<>();
+            current.collect(groupId, pending);
+            for (Segment segment : unflushed) {
+                segment.collect(groupId, pending);
+            }
+            return reader.apply(pending);
+        } finally {
+            appendLock.readLock().unlock();
+            flushLock.readLock().unlock();
+        }
+    }
+
+    // Runs the work while no flush can move buffered deltas into the ledger
+    public <T> T holdingFlush(Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        flushLock.readLock().lock();
+        try {
+            return work.get();
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    // Groups with a delta journalled but not yet in the ledger, including uncommitted ones
+    public Set<Long> bufferedGroupIds() {
+        if (!enabled) {
+            return Set.of();
+        }
+        flushLock.readLock().lock();
+        appendLock.readLock().lock();
+        try {
+            Set<Long> groupIds = new HashSet<>(current.groups);
+            for (Segment segment : unflushed) {
+                groupIds.addAll(segment.groups);
+            }
+            return groupIds;
+        } finally {
+            appendLock.readLock().unlock();
+            flushLock.readLock().unlock();
+        }
+    }
+
+    @PostConstruct
+    void recover() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Map<Path, List<String[]>> segments = new LinkedHashMap<>();
+        Set<Long> journalledTxIds = new HashSet<>();
+        for (Path path : journal.sealedSegments()) {
+            List<String[]> records = new ArrayList<>();
+            for (String record : AppendOnlyJournal.read(path)) {
+                String[] fields = record.split(",");
+                records.add(fields);
+                if (fields.length > 3 && Long.parseLong(fields[3]) != NO_TX) {
+                    journalledTxIds.add(Long.parseLong(fields[3]));
+                }
+            }
+            segments.put(path, records);
+        }
+        // A crash can leave deltas of transactions that rolled back, or never got to commit
+        Set<Long> committed = txIds.committed(journalledTxIds);
+        for (Map.Entry<Path, List<String[]>> e : segments.entrySet()) {
+            // Segments from before batch ids were journalled only hold committed deltas
+            String batchId = AppendOnlyJournal.segmentId(e.getKey());
+            Segment segment = new Segment(e.getKey(), batchId != null ? batchId : UUID.randomUUID().toString());
+            for (String[] fields : e.getValue()) {
+                long txId = fields.length > 3 ? Long.parseLong(fields[3]) : NO_TX;
+                if (txId == NO_TX || committed.contains(txId)) {
+                    segment.add(new Key(Long.valueOf(fields[0]), FundEntryType.valueOf(fields[1])), Long.parseLong(fields[2]));
+                }
+            }
+            unflushed.addLast(segment);
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Keep starting up; the batches stay queued for the scheduled flush
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dsg.fund.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.writeLock().lock();
+        try {
+            swap();
+            // Oldest first; a failed batch stays queued (and visible to reads) for the next run
+            while (!unflushed.isEmpty()) {
+                Segment batch = unflushed.peekFirst();
+                if (batch.inFlight.get() > 0) {
+                    // A transaction that journalled into it has not finished; its delta is not counted yet
+                    break;
+                }
+                tx.executeWithoutResult(status -> persist(batch));
+                unflushed.removeFirst();
+                journal.delete(batch.path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (enabled) {
+            flush();
+            journal.close();
+        }
+    }
+
+    private Segment append(Key key, long paise, long txId) {
+        appendLock.readLock().lock();
+        Segment segment = current;
+        segment.inFlight.incrementAndGet();
+        try {
+            journal.append(key.groupId() + "," + key.type() + "," + paise + "," + txId);
+            segment.groups.add(key.groupId());
+            segment.used = true;
+            return segment;
+        } catch (IOException e) {
+            segment.inFlight.decrementAndGet();
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.readLock().unlock();
+        }
+    }
+
+    // Seals the journal segment together with the counters it backs
+    private void swap() throws IOException {
+        appendLock.writeLock().lock();
+        try {
+            if (!current.used) {
+                return;
+            }
+            Segment sealed = current;
+            sealed.path = journal.rotate();
+            current = new Segment(null, journal.currentId());
+            unflushed.addLast(sealed);
+        } finally {
+            appendLock.writeLock().unlock();
+        }
+    }
+
+    private void persist(Segment batch) {
+        // A replayed segment may already be in the ledger if we crashed between commit and delete
+        if (batchRepository.existsByBatchId(batch.batchId)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String description = BATCH_PREFIX + batch.batchId;
+        List<FundLedgerEntry> entries = new ArrayList<>();
+        batch.totals.forEach((key, adder) -> {
+            long paise = adder.sum();
+            if (paise != 0) {
+                entries.add(new FundLedgerEntry(null, groupRepository.getReferenceById(key.groupId()), key.type(),
+                        Paise.toRupees(paise), description, now, null));
+            }
+        });
+        ledgerRepository.saveAll(entries);
+        batchRepository.save(new FundLedgerBatch(null, batch.batchId, entries.size(), now));
+    }
+
+    private record Key(Long groupId, FundEntryType type) {
+    }
+
+    // One journal segment and the committed totals of the deltas written to it
+    private static final class Segment {
+        private final String batchId;
+        private final Map<Key, LongAdder> totals = new ConcurrentHashMap<>();
+        private final Set<Long> groups = ConcurrentHashMap.newKeySet();
+        // Deltas journalled here whose transaction has not finished yet
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean used;
+        // Set once the segment is sealed
+        private Path path;
+
+        Segment(Path path, String batchId) {
+            this.path = path;
+            this.batchId = batchId;
+        }
+
+        void add(Key key, long paise) {
+            groups.add(key.groupId());
+            totals.computeIfAbsent(key, k -> new LongAdder()).add(paise);
+        }
+
+        void complete(Key key, long paise, boolean committed) {
+            if (committed) {
+                add(key, paise);
+            }
+            inFlight.decrementAndGet();
+        }
+
+        void collect(Long groupId, List<FundEntryTotal> into) {
+            totals.forEach((key, adder) -> {
+                if (key.groupId().equals(groupId)) {
+                    into.add(new FundEntryTotal(key.type(), Paise.toRupees(adder.sum())));
+                }
+            });
+        }
+    }
+}
@@ -1,55 +1,130 @@
 package com.db.dsg.service;
 
+import com.db.dsg.dtos.FundEntryTotal;
+import com.db.dsg.model.FundEntryType;
+import com.db.dsg.model.FundLedgerEntry;
+import com.db.dsg.model.FundSnapshot;
 import com.db.dsg.model.GroupFund;
+import com.db.dsg.repository.FundLedgerEntryRepository;
+import com.db.dsg.repository.FundSnapshotRepository;
 import com.db.dsg.repository.GroupFundRepository;
-import lombok.RequiredArgsConstructor;
+import com.db.dsg.repository.GroupRepository;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Fund movements are appended to the ledger; the {@link GroupFund} row only changes when a
+ * periodic snapshot folds the pending entries into it. Reads add the pending entries on top.
+ */
 @Service
-@RequiredArgsConstructor
 public class GroupFundService {
 
     private final GroupFundRepository groupFundRepository;
+    private final FundLedgerEntryRepository ledgerRepository;
+    private final FundSnapshotRepository snapshotRepository;
+    private final GroupRepository groupRepository;
+    private final FundWriteBehindService writeBehind;
+    private final TransactionTemplate tx;
+    // Fund rows are never deleted, so a group seen once needs no further existence check
+    private final Set<Long> knownFunds = ConcurrentHashMap.newKeySet();
+
+    public GroupFundService(GroupFundRepository groupFundRepository,
+                            FundLedgerEntryRepository ledgerRepository,
+                            FundSnapshotRepository snapshotRepository,
+                            GroupRepository groupRepository,
+                            FundWriteBehindService writeBehind,
+                            PlatformTransactionManager transactionManager) {
+        this.groupFundRepository = groupFundRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.groupRepository = groupRepository;
+        this.writeBehind = writeBehind;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    // Detached copy with pending entries applied; the stored row lags until the next snapshot.
+    // Row and pending sum come from one snapshot: at READ COMMITTED a fold committing between the
+    // two statements would leave the old row without the entries it just folded
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public GroupFund getGroupFund(Long groupId) {
-        return groupFundRepository.findByGroup_Id(groupId)
-                .orElseThrow(() -> new IllegalArgumentException("Group fund not found for groupId: " + groupId));
+        return writeBehind.read(groupId, buffered -> {
+            GroupFund fund = getOrThrow(groupId);
+            Delta pending = pendingDelta(groupId, buffered);
+            return new GroupFund(fund.getId(), fund.getGroup(),
+                    fund.getBalance().add(pending.balance()),
+                    fund.getProfit().add(pending.profit()),
+                    fund.getLoss().add(pending.loss()),
+                    fund.getLastUpdated());
+        });
     }
 
-    public void addToFund(Long groupId, BigDecimal amount) {
-        GroupFund fund = getOrThrow(groupId);
-        fund.setBalance(fund.getBalance().add(amount));
-        fund.setLastUpdated(LocalDate.now());
-        groupFundRepository.save(fund);
+    // In write-behind mode the description is dropped, entries are coalesced per group and type
+    @Transactional
+    public void record(Long groupId, FundEntryType type, BigDecimal amount, String description) {
+        if (!hasFund(groupId)) {
+            throw new IllegalArgumentException("Group fund not found for groupId " + groupId);
+        }
+        if (writeBehind.isEnabled()) {
+            writeBehind.add(groupId, type, amount);
+            return;
+        }
+        ledgerRepository.save(new FundLedgerEntry(null, groupRepository.getReferenceById(groupId),
+                type, amount, description, LocalDateTime.now(), null));
     }
 
-    public void subtractFromFund(Long groupId, BigDecimal amount) {
-        GroupFund fund = getOrThrow(groupId);
-        fund.setBalance(fund.getBalance().subtract(amount));
-        fund.setLastUpdated(LocalDate.now());
-        groupFundRepository.save(fund);
+    public boolean hasFund(Long groupId) {
+        if (knownFunds.contains(groupId)) {
+            return true;
+        }
+        if (groupFundRepository.existsByGroup_Id(groupId)) {
+            knownFunds.add(groupId);
+            return true;
+        }
+        return false;
+    }
+
+    public void addToFund(Long groupId, BigDecimal amount, FundEntryType type) {
+        record(groupId, type, amount, null);
+    }
+
+    public void subtractFromFund(Long groupId, BigDecimal amount, FundEntryType type) {
+        record(groupId, type, amount.negate(), null);
     }
 
     public void addProfit(Long groupId, BigDecimal amount) {
-        GroupFund fund = getOrThrow(groupId);
-        fund.setProfit(fund.getProfit().add(amount));
-        fund.setBalance(fund.getBalance().add(amount));
-        fund.setLastUpdated(LocalDate.now());
-        groupFundRepository.save(fund);
+        record(groupId, FundEntryType.PROFIT, amount, null);
     }
 
     public void addLoss(Long groupId, BigDecimal amount) {
-        GroupFund fund = getOrThrow(groupId);
-        fund.setLoss(fund.getLoss().add(amount));
-        fund.setBalance(fund.getBalance().subtract(amount));
-        fund.setLastUpdated(LocalDate.now());
-        groupFundRepository.save(fund);
+        record(groupId, FundEntryType.LOSS, amount.negate(), null);
     }
 
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public BigDecimal getBalance(Long groupId) {
-        return getOrThrow(groupId).getBalance();
+        return writeBehind.read(groupId, buffered ->
+                getOrThrow(groupId).getBalance().add(pendingDelta(groupId, buffered).balance()));
+    }
+
+    // Latest snapshot at or before the instant plus the entries it does not cover
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public BigDecimal getBalanceAt(Long groupId, LocalDateTime at) {
+        return snapshotRepository.findFirstByGroup_IdAndTakenAtLessThanEqualOrderByTakenAtDesc(groupId, at)
+                .map(s -> s.getBalance().add(orZero(ledgerRepository.sumUpToNotInSnapshot(groupId, at, s.getId()))))
+                .orElseGet(() -> getOrThrow(groupId).getBalance()
+                        .add(pendingDelta(groupId, List.of()).balance())
+                        .subtract(orZero(ledgerRepository.sumCreatedAfter(groupId, at))));
     }
 
     private GroupFund getOrThrow(Long groupId) {
@@ -57,10 +132,80 @@ public class GroupFundService {
                 .orElseThrow(() -> new IllegalArgumentException("Group fund not found for groupId " + groupId));
     }
 
+    // Corrections are recorded as an adjustment entry, so the history still adds up. The fund row
+    // is locked first so a snapshot folding entries, or a second correction, cannot slip between
+    // reading the balance and writing the difference
+    @Transactional
     public void setBalance(Long groupId, BigDecimal newBalance) {
+        groupFundRepository.findByGroupIdForUpdate(groupId)
+                .orElseThrow(() -> new IllegalArgumentException("Group fund not found for groupId " + groupId));
+        record(groupId, FundEntryType.ADJUSTMENT, newBalance.subtract(getBalance(groupId)), "Manual balance adjustment");
+    }
+
+    @Scheduled(fixedDelayString = "${dsg.fund.snapshot.interval-ms:300000}")
+    public void snapshotPendingEntries() {
+        List<Long> failed = new ArrayList<>();
+        for (Long groupId : ledgerRepository.findGroupIdsWithPendingEntries()) {
+            try {
+                tx.executeWithoutResult(status -> {
+                    if (!snapshot(groupId)) {
+                        status.setRollbackOnly();
+                    }
+                });
+            } catch (RuntimeException e) {
+                failed.add(groupId);
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new IllegalStateException("Fund snapshot failed for groups " + failed);
+        }
+    }
+
+    // Stamp first, then sum by stamp: an entry committing mid-way is either fully in or left for next time
+    private boolean snapshot(Long groupId) {
+        FundSnapshot snapshot = snapshotRepository.save(
+                new FundSnapshot(null, groupRepository.getReferenceById(groupId), null, null, null, 0, null));
+        int folded = ledgerRepository.markFolded(groupId, snapshot.getId());
+        if (folded == 0) {
+            return false;
+        }
+        Delta delta = Delta.of(ledgerRepository.sumBySnapshot(snapshot.getId()));
+        groupFundRepository.applyDelta(groupId, delta.balance(), delta.profit(), delta.loss(), LocalDate.now());
+
         GroupFund fund = getOrThrow(groupId);
-        fund.setBalance(newBalance);
-        fund.setLastUpdated(LocalDate.now());
-        groupFundRepository.save(fund);
+        snapshot.setBalance(fund.getBalance());
+        snapshot.setProfit(fund.getProfit());
+        snapshot.setLoss(fund.getLoss());
+        snapshot.setEntryCount(folded);
+        snapshot.setTakenAt(LocalDateTime.now());
+        return true;
+    }
+
+    private Delta pendingDelta(Long groupId, List<FundEntryTotal> buffered) {
+        List<FundEntryTotal> totals = new ArrayList<>(ledgerRepository.sumPendingByType(groupId));
+        totals.addAll(buffered);
+        return Delta.of(totals);
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    // Loss entries are stored negative (they reduce the balance) but the loss column accumulates positive
+    private record Delta(BigDecimal balance, BigDecimal profit, BigDecimal loss) {
+        static Delta of(List<FundEntryTotal> totals) {
+            BigDecimal balance = BigDecimal.ZERO;
+            BigDecimal profit = BigDecimal.ZERO;
+            BigDecimal loss = BigDecimal.ZERO;
+            for (FundEntryTotal total : totals) {
+                balance = balance.add(total.getAmount());
+                if (total.getType() == FundEntryType.PROFIT) {
+                    profit = profit.add(total.getAmount());
+                } else if (total.getType() == FundEntryType.LOSS) {
+                    loss = loss.subtract(total.getAmount());
+                }
+            }
+            return new Delta(balance, profit, loss);
+        }
     }
 }
\ No newline at end of file
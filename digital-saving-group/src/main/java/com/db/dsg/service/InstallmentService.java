@@ -0,0 +1,135 @@
+package com.db.dsg.service;
+
+import com.db.dsg.dtos.InstallmentDue;
+import com.db.dsg.model.Loan;
+import com.db.dsg.model.LoanInstallment;
+import com.db.dsg.repository.LoanInstallmentRepository;
+import com.db.dsg.util.Amortization;
+import com.db.dsg.util.Paise;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repayment schedules: generated when a loan is disbursed, consumed by repayments (interest
+ * first, oldest instalment first) and queried by due date for overdue and upcoming lists.
+ */
+@Service
+public class InstallmentService {
+
+    private static final int MAX_TERM_MONTHS = 120;
+
+    private final LoanInstallmentRepository installmentRepo;
+    private final int defaultRateBps;
+    private final int defaultTermMonths;
+
+    public InstallmentService(LoanInstallmentRepository installmentRepo,
+                              @Value("${dsg.loan.default-annual-rate-bps:1200}") int defaultRateBps,
+                              @Value("${dsg.loan.default-term-months:12}") int defaultTermMonths) {
+        this.installmentRepo = installmentRepo;
+        this.defaultRateBps = defaultRateBps;
+        this.defaultTermMonths = defaultTermMonths;
+    }
+
+    public void applyTerms(Loan loan, Integer termMonths) {
+        int term = termMonths != null ? termMonths : defaultTermMonths;
+        if (term < 1 || term > MAX_TERM_MONTHS) {
+            throw new IllegalArgumentException("Loan term must be between 1 and " + MAX_TERM_MONTHS + " months");
+        }
+        loan.setTermMonths(term);
+        if (loan.getInterestRateBps() == null) {
+            loan.setInterestRateBps(defaultRateBps);
+        }
+    }
+
+    // Called inside the disbursement transaction; loans applied for before terms existed get the defaults
+    public List<LoanInstallment> generate(Loan loan, Long groupId) {
+        if (loan.getTermMonths() == null) {
+            applyTerms(loan, null);
+        }
+        int months = loan.getTermMonths();
+        long[] principal = new long[months];
+        long[] interest = new long[months];
+        Amortization.schedule(Paise.of(loan.getAmount()), loan.getInterestRateBps(), months, principal, interest);
+
+        LocalDate start = loan.getDisbursementDate();
+        List<LoanInstallment> installments = new ArrayList<>(months);
+        for (int i = 0; i < months; i++) {
+            installments.add(new LoanInstallment(null, loan, groupId, i + 1, start.plusMonths(i + 1),
+                    principal[i], interest[i], 0, 0, false, null));
+        }
+        return installmentRepo.saveAll(installments);
+    }
+
+    /**
+     * Splits a repayment over the open instalments, interest before principal, oldest first.
+     * Loans disbursed before schedules existed have none; the whole payment is principal then.
+     */
+    public Allocation allocate(Loan loan, BigDecimal amount) {
+        long remaining = Paise.of(amount);
+        List<LoanInstallment> open = installmentRepo.findByLoan_IdAndSettledFalseOrderByNumberAsc(loan.getId());
+        if (open.isEmpty() && !installmentRepo.existsByLoan_Id(loan.getId())) {
+            return new Allocation(amount, BigDecimal.ZERO, true, 0, 0);
+        }
+
+        long outstanding = 0;
+        for (LoanInstallment installment : open) {
+            outstanding += installment.outstandingInterest() + installment.outstandingPrincipal();
+        }
+        if (remaining > outstanding) {
+            throw new IllegalArgumentException("Repayment exceeds remaining loan amount.");
+        }
+
+        long principalPaid = 0;
+        long interestPaid = 0;
+        int onTime = 0;
+        int late = 0;
+        LocalDate today = LocalDate.now();
+        for (LoanInstallment installment : open) {
+            if (remaining == 0) {
+                break;
+            }
+            long toInterest = Math.min(remaining, installment.outstandingInterest());
+            installment.setInterestPaid(installment.getInterestPaid() + toInterest);
+            remaining -= toInterest;
+            long toPrincipal = Math.min(remaining, installment.outstandingPrincipal());
+            installment.setPrincipalPaid(installment.getPrincipalPaid() + toPrincipal);
+            remaining -= toPrincipal;
+
+            interestPaid += toInterest;
+            principalPaid += toPrincipal;
+            if (installment.outstandingInterest() == 0 && installment.outstandingPrincipal() == 0) {
+                installment.setSettled(true);
+                installment.setSettledDate(today);
+                if (today.isAfter(installment.getDueDate())) {
+                    late++;
+                } else {
+                    onTime++;
+                }
+            }
+        }
+        return new Allocation(Paise.toRupees(principalPaid), Paise.toRupees(interestPaid),
+                onTime + late == open.size(), onTime, late);
+    }
+
+    public List<InstallmentDue> getSchedule(Long loanId) {
+        return installmentRepo.findSchedule(loanId);
+    }
+
+    public List<InstallmentDue> getDueBetween(Long groupId, LocalDate from, LocalDate to) {
+        return installmentRepo.findDueBetween(groupId, from, to);
+    }
+
+    public List<Loan> getLoansWithOverdueInstallments(Long groupId) {
+        return installmentRepo.findOverdueLoans(groupId, LocalDate.now());
+    }
+
+    // scheduleSettled: no open instalment is left after this payment; the counts are instalments it closed
+    public record Allocation(BigDecimal principal, BigDecimal interest, boolean scheduleSettled,
+                             int settledOnTime, int settledLate) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.db.dsg.service;
+
+import com.db.dsg.batch.InterestAccrualJobConfig;
+import com.db.dsg.dtos.InterestAccrualRun;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Launches the interest-accrual job. Running a date whose last run failed restarts it where it
+ * stopped, whatever the date, because the job accrues from the balances it recorded for that
+ * day; a date that already completed is rejected. A new day can only be started for the day
+ * that just ended, the only one the live balances stand for.
+ */
+@Service
+public class InterestAccrualService {
+
+    private final JobLauncher jobLauncher;
+    private final JobRepository jobRepository;
+    private final Job interestAccrualJob;
+
+    public InterestAccrualService(JobLauncher jobLauncher, JobRepository jobRepository, Job interestAccrualJob) {
+        this.jobLauncher = jobLauncher;
+        this.jobRepository = jobRepository;
+        this.interestAccrualJob = interestAccrualJob;
+    }
+
+    // Shortly after midnight, for the day that just ended
+    @Scheduled(cron = "${dsg.interest.accrual.cron:0 30 0 * * *}")
+    public void accruePreviousDay() {
+        accrue(LocalDate.now().minusDays(1));
+    }
+
+    public InterestAccrualRun accrue(LocalDate date) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        if (date.isAfter(yesterday)) {
+            throw new IllegalArgumentException("Interest for " + date + " can only be accrued once the day has ended");
+        }
+        JobParameters params = new JobParametersBuilder()
+                .addLocalDate(InterestAccrualJobConfig.ACCRUAL_DATE, date)
+                .toJobParameters();
+        if (date.isBefore(yesterday) && !jobRepository.isJobInstanceExists(InterestAccrualJobConfig.JOB_NAME, params)) {
+            throw new IllegalArgumentException("Accrual for " + date + " was never started, so no balances were "
+                    + "recorded for it; a new accrual can only start for " + yesterday);
+        }
+        try {
+            return toRun(date, jobLauncher.run(interestAccrualJob, params));
+        } catch (JobInstanceAlreadyCompleteException e) {
+            throw new IllegalStateException("Interest for " + date + " has already been accrued");
+        } catch (JobExecutionAlreadyRunningException e) {
+            throw new IllegalStateException("Interest accrual for " + date + " is already running");
+        } catch (JobRestartException | JobParametersInvalidException e) {
+            throw new IllegalStateException("Interest accrual for " + date + " could not be started", e);
+        }
+    }
+
+    private static InterestAccrualRun toRun(LocalDate date, JobExecution execution) {
+        long accrued = 0;
+        for (StepExecution step : execution.getStepExecutions()) {
+            if (step.getStepName().startsWith(InterestAccrualJobConfig.WORKER_STEP + ":")) {
+                accrued += step.getWriteCount();
+            }
+        }
+        return new InterestAccrualRun(execution.getId(), date, execution.getStatus().name(), accrued,
+                execution.getStartTime(), execution.getEndTime());
+    }
+}
@@ -1,27 +1,45 @@
 package com.db.dsg.service;
 
+import com.db.dsg.dtos.BulkLoanResult;
+import com.db.dsg.dtos.InstallmentDue;
 import com.db.dsg.model.*;
 import com.db.dsg.repository.LoanApplicationRepository;
-import com.db.dsg.repository.LoanAuditLogRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class LoanApplicationService {
+    private static final int MAX_BULK_LOANS = 500;
+
     private final LoanApplicationRepository loanRepo;
-    private final LoanAuditLogRepository auditLogRepo;
+    private final LoanAuditService auditService;
     private final GroupFundService groupFundService;
+    private final ReportCacheService reportCacheService;
+    private final OptimisticTransactionRunner retry;
+    private final InstallmentService installmentService;
+    private final ProfitLossService profitLossService;
+    private final PortfolioAgingService agingService;
+    private final MemberExposureService exposureService;
+    private final ChangeLogService changeLog;
 
     // ✅ Member applies for a loan
     public Loan applyLoan(Member member, BigDecimal amount, String purpose) {
+        return applyLoan(member, amount, purpose, null);
+    }
+
+    // termMonths defaults to dsg.loan.default-term-months
+    public Loan applyLoan(Member member, BigDecimal amount, String purpose, Integer termMonths) {
         Loan loan = new Loan();
         loan.setMember(member);
         loan.setAmount(amount);
@@ -29,129 +47,272 @@ public class LoanApplicationService {
         loan.setStatus(LoanStatus.PENDING);
         loan.setPurpose(purpose);
         loan.setApplicationDate(LocalDate.now());
+        installmentService.applyTerms(loan, termMonths);
 
         Loan saved = loanRepo.save(loan);
+        changeLog.recordLoans(List.of(saved), ChangeLog.Op.CREATED);
 
-        auditLogRepo.save(new LoanAuditLog(null, saved, LoanStatus.PENDING,
-                member.getName(), LocalDateTime.now(), "Loan applied by " + member.getName()));
+        auditService.log(saved, LoanStatus.PENDING, member.getName(), "Loan applied by " + member.getName());
 
         return saved;
     }
 
     // ✅ President approves the loan
     public Loan approveLoan(Long loanId, MemberUser approver) {
-        Loan loan = loanRepo.findById(loanId)
-                .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
+        return retry.run(() -> {
+            Loan loan = loanRepo.findById(loanId)
+                    .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
 
-        if (loan.getStatus() != LoanStatus.PENDING) {
-            throw new IllegalStateException("Only PENDING loans can be approved");
-        }
+            if (!loan.getStatus().canTransitionTo(LoanStatus.APPROVED)) {
+                throw new IllegalStateException("Only PENDING loans can be approved");
+            }
 
-        loan.setStatus(LoanStatus.APPROVED);
-        loan.setApprovalDate(LocalDate.now());
+            loan.setStatus(LoanStatus.APPROVED);
+            loan.setApprovalDate(LocalDate.now());
 
-        Loan updated = loanRepo.save(loan);
+            Loan updated = loanRepo.save(loan);
+            changeLog.recordLoans(List.of(updated), ChangeLog.Op.UPDATED);
 
-        auditLogRepo.save(new LoanAuditLog(null, updated, LoanStatus.APPROVED,
-                approver.getUsername(), LocalDateTime.now(), "Approved by " + approver.getUsername()));
+            auditService.log(updated, LoanStatus.APPROVED, approver.getUsername(), "Approved by " + approver.getUsername());
 
-        return updated;
+            return updated;
+        });
     }
 
     // ✅ Treasurer disburses the loan
     public Loan disburseLoan(Long loanId, MemberUser treasurer) {
-        Loan loan = loanRepo.findById(loanId)
-                .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
+        return retry.run(() -> {
+            Loan loan = loanRepo.findById(loanId)
+                    .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
 
-        if (loan.getStatus() != LoanStatus.APPROVED) {
-            throw new IllegalStateException("Only APPROVED loans can be disbursed");
-        }
+            if (!loan.getStatus().canTransitionTo(LoanStatus.DISBURSED)) {
+                throw new IllegalStateException("Only APPROVED loans can be disbursed");
+            }
 
-        if (!treasurer.hasRole("TREASURER")) {
-            throw new AccessDeniedException("Only treasurer can disburse loans");
-        }
+            if (!treasurer.hasRole("TREASURER")) {
+                throw new AccessDeniedException("Only treasurer can disburse loans");
+            }
 
-        BigDecimal amount = loan.getAmount();
-        Long groupId = loan.getMember().getGroup().getId();
+            BigDecimal amount = loan.getAmount();
+            Long groupId = loan.getMember().getGroup().getId();
 
-        // Deduct from group fund
-        groupFundService.subtractFromFund(groupId, amount);
+            // Deduct from group fund
+            groupFundService.subtractFromFund(groupId, amount, FundEntryType.DISBURSEMENT);
 
-        loan.setStatus(LoanStatus.DISBURSED);
-        loan.setDisbursementDate(LocalDate.now());
-        loan.setRemainingBalance(amount);
+            loan.setStatus(LoanStatus.DISBURSED);
+            loan.setDisbursementDate(LocalDate.now());
+            loan.setRemainingBalance(amount);
 
-        Loan updated = loanRepo.save(loan);
+            Loan updated = loanRepo.save(loan);
+            installmentService.generate(updated, groupId);
+            agingService.disbursed(groupId, List.of(updated));
+            exposureService.disbursed(updated, groupId);
+            changeLog.recordLoans(List.of(updated), ChangeLog.Op.UPDATED);
 
-        auditLogRepo.save(new LoanAuditLog(null, updated, LoanStatus.DISBURSED,
-                treasurer.getUsername(), LocalDateTime.now(), "Disbursed ₹" + amount + " by " + treasurer.getUsername()));
+            auditService.log(updated, LoanStatus.DISBURSED,
+                    treasurer.getUsername(), "Disbursed ₹" + amount + " by " + treasurer.getUsername());
 
-        return updated;
+            return updated;
+        });
     }
 
     // ✅ Reject the loan (President or Treasurer)
     public Loan rejectLoan(Long loanId, MemberUser user) {
-        Loan loan = loanRepo.findById(loanId)
-                .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
+        return retry.run(() -> {
+            Loan loan = loanRepo.findById(loanId)
+                    .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
 
-        if (loan.getStatus() != LoanStatus.PENDING && loan.getStatus() != LoanStatus.APPROVED) {
-            throw new IllegalStateException("Only PENDING or APPROVED loans can be rejected");
-        }
+            if (!loan.getStatus().canTransitionTo(LoanStatus.REJECTED)) {
+                throw new IllegalStateException("Only PENDING or APPROVED loans can be rejected");
+            }
 
-        loan.setStatus(LoanStatus.REJECTED);
+            loan.setStatus(LoanStatus.REJECTED);
 
-        Loan updated = loanRepo.save(loan);
+            Loan updated = loanRepo.save(loan);
+            changeLog.recordLoans(List.of(updated), ChangeLog.Op.UPDATED);
 
-        auditLogRepo.save(new LoanAuditLog(null, updated, LoanStatus.REJECTED,
-                user.getUsername(), LocalDateTime.now(), "Rejected by " + user.getUsername()));
+            auditService.log(updated, LoanStatus.REJECTED, user.getUsername(), "Rejected by " + user.getUsername());
 
-        return updated;
+            return updated;
+        });
     }
 
-    public Loan repayAndUpdateFund(Long loanId, BigDecimal repaymentAmount, MemberUser memberUser) {
-        Loan loan = loanRepo.findById(loanId)
-                .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
+    // ✅ Bulk workflows: all loans in one query and one fund entry per group.
+    // Loans that fail validation are reported and left untouched; the rest commit together.
+    public List<BulkLoanResult> bulkApprove(List<Long> loanIds, MemberUser approver) {
+        return retry.run(() -> {
+            List<BulkLoanResult> results = new ArrayList<>();
+            List<Loan> approved = new ArrayList<>();
+            for (Map.Entry<Long, Loan> e : loadForBulk(loanIds).entrySet()) {
+                Loan loan = e.getValue();
+                if (loan == null) {
+                    results.add(BulkLoanResult.failed(e.getKey(), null, "Loan not found"));
+                } else if (!loan.getStatus().canTransitionTo(LoanStatus.APPROVED)) {
+                    results.add(BulkLoanResult.failed(loan.getId(), loan.getStatus(), "Only PENDING loans can be approved"));
+                } else {
+                    loan.setStatus(LoanStatus.APPROVED);
+                    loan.setApprovalDate(LocalDate.now());
+                    auditService.log(loan, LoanStatus.APPROVED,
+                            approver.getUsername(), "Approved by " + approver.getUsername());
+                    results.add(BulkLoanResult.ok(loan.getId(), LoanStatus.APPROVED));
+                    approved.add(loan);
+                }
+            }
+            changeLog.recordLoans(approved, ChangeLog.Op.UPDATED);
+            return results;
+        });
+    }
 
-        Member member = memberUser.getMember();
+    public List<BulkLoanResult> bulkDisburse(List<Long> loanIds, MemberUser treasurer) {
+        return retry.run(() -> {
+            if (!treasurer.hasRole("TREASURER")) {
+                throw new AccessDeniedException("Only treasurer can disburse loans");
+            }
+
+            List<BulkLoanResult> results = new ArrayList<>();
+            Map<Long, BigDecimal> disbursedByGroup = new LinkedHashMap<>();
+            Map<Long, List<Loan>> loansByGroup = new LinkedHashMap<>();
+            for (Map.Entry<Long, Loan> e : loadForBulk(loanIds).entrySet()) {
+                Loan loan = e.getValue();
+                if (loan == null) {
+                    results.add(BulkLoanResult.failed(e.getKey(), null, "Loan not found"));
+                    continue;
+                }
+                Long groupId = loan.getMember().getGroup().getId();
+                if (!loan.getStatus().canTransitionTo(LoanStatus.DISBURSED)) {
+                    results.add(BulkLoanResult.failed(loan.getId(), loan.getStatus(), "Only APPROVED loans can be disbursed"));
+                } else if (!groupFundService.hasFund(groupId)) {
+                    results.add(BulkLoanResult.failed(loan.getId(), loan.getStatus(), "Group fund not found for groupId " + groupId));
+                } else {
+                    BigDecimal amount = loan.getAmount();
+                    loan.setStatus(LoanStatus.DISBURSED);
+                    loan.setDisbursementDate(LocalDate.now());
+                    loan.setRemainingBalance(amount);
+                    installmentService.generate(loan, groupId);
+                    exposureService.disbursed(loan, groupId);
+                    disbursedByGroup.merge(groupId, amount, BigDecimal::add);
+                    loansByGroup.computeIfAbsent(groupId, id -> new ArrayList<>()).add(loan);
+                    auditService.log(loan, LoanStatus.DISBURSED,
+                            treasurer.getUsername(), "Disbursed ₹" + amount + " by " + treasurer.getUsername());
+                    results.add(BulkLoanResult.ok(loan.getId(), LoanStatus.DISBURSED));
+                }
+            }
+
+            // One ledger entry and one aging update per group for the whole batch
+            disbursedByGroup.forEach((groupId, total) -> groupFundService.record(groupId, FundEntryType.DISBURSEMENT,
+                    total.negate(), "Bulk disbursement of " + loansByGroup.get(groupId).size() + " loans"));
+            loansByGroup.forEach(agingService::disbursed);
+            loansByGroup.values().forEach(loans -> changeLog.recordLoans(loans, ChangeLog.Op.UPDATED));
+            return results;
+        });
+    }
 
-        if (!loan.getMember().getId().equals(member.getId())) {
-            throw new AccessDeniedException("This loan does not belong to the current user.");
+    public List<BulkLoanResult> bulkReject(List<Long> loanIds, MemberUser user) {
+        return retry.run(() -> {
+            List<BulkLoanResult> results = new ArrayList<>();
+            List<Loan> rejected = new ArrayList<>();
+            for (Map.Entry<Long, Loan> e : loadForBulk(loanIds).entrySet()) {
+                Loan loan = e.getValue();
+                if (loan == null) {
+                    results.add(BulkLoanResult.failed(e.getKey(), null, "Loan not found"));
+                } else if (!loan.getStatus().canTransitionTo(LoanStatus.REJECTED)) {
+                    results.add(BulkLoanResult.failed(loan.getId(), loan.getStatus(),
+                            "Only PENDING or APPROVED loans can be rejected"));
+                } else {
+                    loan.setStatus(LoanStatus.REJECTED);
+                    auditService.log(loan, LoanStatus.REJECTED,
+                            user.getUsername(), "Rejected by " + user.getUsername());
+                    results.add(BulkLoanResult.ok(loan.getId(), LoanStatus.REJECTED));
+                    rejected.add(loan);
+                }
+            }
+            changeLog.recordLoans(rejected, ChangeLog.Op.UPDATED);
+            return results;
+        });
+    }
+
+    // Requested ids in order, duplicates dropped; ids that do not exist map to null.
+    // The loans are managed, so their changes are flushed (and batched) at commit.
+    private Map<Long, Loan> loadForBulk(List<Long> loanIds) {
+        if (loanIds == null || loanIds.isEmpty()) {
+            throw new IllegalArgumentException("No loan ids given");
+        }
+        if (loanIds.size() > MAX_BULK_LOANS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_LOANS + " loans per request");
+        }
+        Map<Long, Loan> loans = new LinkedHashMap<>();
+        for (Long id : new LinkedHashSet<>(loanIds)) {
+            loans.put(id, null);
         }
+        for (Loan loan : loanRepo.findAllWithMemberAndGroupByIdIn(loans.keySet())) {
+            loans.put(loan.getId(), loan);
+        }
+        return loans;
+    }
 
-        if (loan.getStatus() != LoanStatus.DISBURSED && loan.getStatus() != LoanStatus.REPAID) {
-            throw new IllegalStateException("Only DISBURSED loans can be repaid.");
+    public Loan repayAndUpdateFund(Long loanId, BigDecimal repaymentAmount, MemberUser memberUser) {
+        if (repaymentAmount == null || repaymentAmount.signum() <= 0) {
+            throw new IllegalArgumentException("Repayment amount must be positive.");
         }
+        return retry.run(() -> {
+            Loan loan = loanRepo.findById(loanId)
+                    .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
 
-        BigDecimal currentBalance = loan.getRemainingBalance();
-        BigDecimal newBalance = currentBalance.subtract(repaymentAmount);
+            Member member = memberUser.getMember();
 
-        if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("Repayment exceeds remaining loan amount.");
-        }
+            if (!loan.getMember().getId().equals(member.getId())) {
+                throw new AccessDeniedException("This loan does not belong to the current user.");
+            }
 
-        loan.setRemainingBalance(newBalance);
+            if (loan.getStatus() != LoanStatus.DISBURSED) {
+                throw new IllegalStateException("Only DISBURSED loans can be repaid.");
+            }
 
-        // ✅ If fully paid
-        if (newBalance.compareTo(BigDecimal.ZERO) == 0) {
-            loan.setStatus(LoanStatus.REPAID);
-            loan.setRepaymentDate(LocalDate.now());
-        }
+            // ✅ Interest first, then principal, against the oldest open instalments
+            InstallmentService.Allocation allocation = installmentService.allocate(loan, repaymentAmount);
+
+            BigDecimal currentBalance = loan.getRemainingBalance();
+            BigDecimal newBalance = currentBalance.subtract(allocation.principal());
+
+            if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
+                throw new IllegalArgumentException("Repayment exceeds remaining loan amount.");
+            }
+
+            loan.setRemainingBalance(newBalance);
 
-        Loan updatedLoan = loanRepo.save(loan);
+            // ✅ If fully paid; the loan was DISBURSED above, so this is the one transition to REPAID
+            boolean closed = newBalance.compareTo(BigDecimal.ZERO) == 0 && allocation.scheduleSettled();
+            if (closed) {
+                loan.setStatus(LoanStatus.REPAID);
+                loan.setRepaymentDate(LocalDate.now());
+            }
 
-        // ✅ Update GroupFund (add money back)
-        Long groupId = loan.getMember().getGroup().getId();
-        groupFundService.addToFund(groupId, repaymentAmount);
+            // ✅ Move the loan between aging buckets if its oldest unpaid instalment changed
+            Group group = loan.getMember().getGroup();
+            Long groupId = group.getId();
+            agingService.repaid(loan, groupId, allocation.principal());
 
-        // ✅ Optional: Track profit/loss (not required unless there's interest/profit sharing)
-        // profitLossService.addProfit(groupId, ...);
+            Loan updatedLoan = loanRepo.save(loan);
+            exposureService.repaid(updatedLoan, groupId, allocation, closed);
+            changeLog.recordLoans(List.of(updatedLoan), ChangeLog.Op.UPDATED);
 
-        // ✅ Add audit log
-        auditLogRepo.save(new LoanAuditLog(null, updatedLoan,
-                loan.getStatus(), memberUser.getUsername(), LocalDateTime.now(),
-                "Repayment of ₹" + repaymentAmount + " by " + memberUser.getUsername()));
+            // ✅ Update GroupFund: principal comes back to the fund, interest is group profit
+            if (allocation.principal().signum() > 0) {
+                groupFundService.addToFund(groupId, allocation.principal(), FundEntryType.REPAYMENT);
+            }
+            if (allocation.interest().signum() > 0) {
+                groupFundService.addProfit(groupId, allocation.interest());
+            }
+            profitLossService.recordPrincipalAndInterest(group, allocation.principal(), allocation.interest(), "Loan repayment");
 
-        return updatedLoan;
+            // ✅ Add audit log
+            auditService.log(updatedLoan, loan.getStatus(), memberUser.getUsername(),
+                    "Repayment of ₹" + repaymentAmount + " by " + memberUser.getUsername());
+
+            reportCacheService.invalidate(groupId, LocalDate.now());
+
+            return updatedLoan;
+        });
     }
 
     // ✅ Get all loans for a member
@@ -166,7 +327,7 @@ public class LoanApplicationService {
 
     // ✅ Get audit log history for a loan
     public List<LoanAuditLog> getAuditLogs(Long loanId) {
-        return auditLogRepo.findByLoan_IdOrderByTimestampAsc(loanId);
+        return auditService.getAuditLogs(loanId);
     }
 
     // ✅ 3. Get monthly repayment history
@@ -176,11 +337,33 @@ public class LoanApplicationService {
         return loanRepo.findByMember_Group_IdAndRepaymentDateBetween(groupId, start, end);
     }
 
-    // ✅ 4. Get overdue loans (> 90 days)
+    // ✅ 4. Get overdue loans: an unpaid instalment past its due date.
+    // Loans disbursed before schedules existed keep the old rule (> 90 days since disbursement).
     public List<Loan> getOverdueLoans(Long groupId) {
-        LocalDate due = LocalDate.now().minusDays(90);
-        return loanRepo.findByMember_Group_IdAndStatusAndDisbursementDateBefore(
-                groupId, LoanStatus.DISBURSED, due);
+        List<Loan> overdue = new ArrayList<>(installmentService.getLoansWithOverdueInstallments(groupId));
+        overdue.addAll(loanRepo.findUnscheduledByGroupAndStatusDisbursedBefore(
+                groupId, LoanStatus.DISBURSED, LocalDate.now().minusDays(90)));
+        return overdue;
+    }
+
+    // ✅ Repayment schedule of a loan
+    // ✅ Officers see any loan's schedule, like the audit trail; members only their own
+    public List<InstallmentDue> getSchedule(Long loanId, MemberUser user) {
+        boolean officer = user.hasRole("PRESIDENT") || user.hasRole("TREASURER") || user.hasRole("SUPER_ADMIN");
+        if (!officer) {
+            Loan loan = loanRepo.findById(loanId)
+                    .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
+            if (!loan.getMember().getId().equals(user.getMember().getId())) {
+                throw new AccessDeniedException("This loan does not belong to the current user.");
+            }
+        }
+        return installmentService.getSchedule(loanId);
+    }
+
+    // ✅ Unpaid instalments of a group falling due in the next seven days (today included)
+    public List<InstallmentDue> getDueThisWeek(Long groupId) {
+        LocalDate today = LocalDate.now();
+        return installmentService.getDueBetween(groupId, today, today.plusDays(6));
     }
 
     // Optional: Notification candidates for overdue loans
@@ -0,0 +1,300 @@
+package com.db.dsg.service;
+
+import com.db.dsg.model.Loan;
+import com.db.dsg.model.LoanAuditLog;
+import com.db.dsg.model.LoanStatus;
+import com.db.dsg.repository.LoanApplicationRepository;
+import com.db.dsg.repository.LoanAuditLogRepository;
+import com.db.dsg.util.AppendOnlyJournal;
+import com.db.dsg.util.DataDirs;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Loan audit trail written off the request path. Entries are journalled locally inside the loan
+ * change's transaction, before it commits, and queued once it does; a scheduled writer inserts
+ * them in JDBC batches. Journal segments left over from a crash are replayed at startup, keeping
+ * only entries whose transaction committed. Entries whose event id is already stored are
+ * skipped, and a batch that keeps failing is moved to the journal's dead-letter directory.
+ */
+@Service
+@DependsOn("sequenceAlignmentService")
+public class LoanAuditService {
+
+    // Journalled for entries logged outside a transaction; they always count
+    private static final long NO_TX = 0;
+
+    private final LoanAuditLogRepository auditLogRepo;
+    private final LoanApplicationRepository loanRepo;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionIdService txIds;
+    private final TransactionTemplate tx;
+    private final AppendOnlyJournal journal;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    // Appenders and readers share the read side; the writer takes the write side only to seal the
+    // segment, so a reader always finds an entry in the open batch or in an unflushed one
+    private final ReadWriteLock appendLock = new ReentrantReadWriteLock();
+    private volatile Batch current = new Batch();
+    private final Deque<Batch> unflushed = new ConcurrentLinkedDeque<>();
+
+    public LoanAuditService(LoanAuditLogRepository auditLogRepo,
+                            LoanApplicationRepository loanRepo,
+                            EntityManager entityManager,
+                            ObjectMapper objectMapper,
+                            TransactionIdService txIds,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${dsg.audit.journal-dir:}") String journalDir,
+                            @Value("${dsg.audit.fsync:true}") boolean fsync,
+                            @Value("${dsg.audit.batch-size:500}") int batchSize,
+                            @Value("${dsg.audit.max-attempts:5}") int maxAttempts) throws IOException {
+        this.auditLogRepo = auditLogRepo;
+        this.loanRepo = loanRepo;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.txIds = txIds;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.journal = new AppendOnlyJournal(DataDirs.requireDurable(journalDir, "dsg.audit.journal-dir"), "audit", fsync);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    // Inside a transaction the entry is on disk before the loan change commits and queued only if it does
+    public void log(Loan loan, LoanStatus status, String performedBy, String description) {
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        AuditRecord record = new AuditRecord(UUID.randomUUID().toString(), loan.getId(), status,
+                performedBy, LocalDateTime.now(), description, inTransaction ? txIds.current() : NO_TX);
+        Batch batch = append(record);
+        if (!inTransaction) {
+            batch.complete(record, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                batch.complete(record, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    // Stored entries plus the ones still queued, in timestamp order
+    public List<LoanAuditLog> getAuditLogs(Long loanId) {
+        List<AuditRecord> queued = new ArrayList<>();
+        appendLock.readLock().lock();
+        try {
+            collect(current.records, loanId, queued);
+            for (Batch batch : unflushed) {
+                collect(batch.records, loanId, queued);
+            }
+        } finally {
+            appendLock.readLock().unlock();
+        }
+        // Read the table after the queue: an entry committed in between shows up in both
+        Map<String, LoanAuditLog> logs = new LinkedHashMap<>();
+        for (LoanAuditLog log : auditLogRepo.findByLoan_IdOrderByTimestampAsc(loanId)) {
+            logs.put(log.getEventId() != null ? log.getEventId() : "id:" + log.getId(), log);
+        }
+        if (!queued.isEmpty()) {
+            Loan loan = loanRepo.findById(loanId).orElse(null);
+            for (AuditRecord record : queued) {
+                logs.putIfAbsent(record.eventId(), record.toEntity(loan));
+            }
+        }
+        List<LoanAuditLog> result = new ArrayList<>(logs.values());
+        result.sort(Comparator.comparing(LoanAuditLog::getTimestamp));
+        return result;
+    }
+
+    @PostConstruct
+    void recover() throws IOException {
+        Map<Path, List<AuditRecord>> segments = new LinkedHashMap<>();
+        Set<Long> journalledTxIds = new HashSet<>();
+        for (Path segment : journal.sealedSegments()) {
+            List<AuditRecord> records = new ArrayList<>();
+            for (String line : AppendOnlyJournal.read(segment)) {
+                AuditRecord record = objectMapper.readValue(line, AuditRecord.class);
+                records.add(record);
+                if (record.txId() != null && record.txId() != NO_TX) {
+                    journalledTxIds.add(record.txId());
+                }
+            }
+            segments.put(segment, records);
+        }
+        // A crash can leave entries of loan changes that rolled back, or never got to commit
+        Set<Long> committed = txIds.committed(journalledTxIds);
+        segments.forEach((segment, records) -> {
+            // Entries journalled before transaction ids were recorded were written after the commit
+            Batch batch = new Batch();
+            batch.segment = segment;
+            for (AuditRecord record : records) {
+                if (record.txId() == null || record.txId() == NO_TX || committed.contains(record.txId())) {
+                    batch.records.add(record);
+                }
+            }
+            unflushed.addLast(batch);
+        });
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Keep starting up; the batches stay queued for the scheduled writer
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dsg.audit.flush-interval-ms:200}")
+    public synchronized void flush() {
+        try {
+            swap();
+            // Oldest first; a failed batch stays queued (and visible to reads) for the next run,
+            // until it has failed maxAttempts times and is set aside so later batches can go in
+            while (!unflushed.isEmpty()) {
+                Batch batch = unflushed.peekFirst();
+                if (batch.inFlight.get() > 0) {
+                    // A loan change that journalled into it has not finished; its entry is not queued yet
+                    break;
+                }
+                try {
+                    tx.executeWithoutResult(status -> persist(batch));
+                } catch (RuntimeException e) {
+                    if (++batch.attempts < maxAttempts) {
+                        throw e;
+                    }
+                    unflushed.removeFirst();
+                    Path deadLetter = journal.deadLetter(batch.segment);
+                    // Its entries no longer show in getAuditLogs; fail the run so the scheduler reports it
+                    throw new IllegalStateException("Audit batch failed " + batch.attempts + " times, "
+                            + batch.records.size() + " entries moved to " + deadLetter, e);
+                }
+                unflushed.removeFirst();
+                journal.delete(batch.segment);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        journal.close();
+    }
+
+    // Appenders share the lock, so concurrent entries also share the journal's fsyncs
+    private Batch append(AuditRecord record) {
+        String line;
+        try {
+            line = objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        appendLock.readLock().lock();
+        Batch batch = current;
+        batch.inFlight.incrementAndGet();
+        try {
+            journal.append(line);
+            batch.used = true;
+            return batch;
+        } catch (IOException e) {
+            batch.inFlight.decrementAndGet();
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.readLock().unlock();
+        }
+    }
+
+    // Seals the journal segment together with the entries it backs
+    private void swap() throws IOException {
+        appendLock.writeLock().lock();
+        try {
+            if (!current.used) {
+                return;
+            }
+            Batch sealed = current;
+            sealed.segment = journal.rotate();
+            current = new Batch();
+            unflushed.addLast(sealed);
+        } finally {
+            appendLock.writeLock().unlock();
+        }
+    }
+
+    // Filters on every attempt: a commit whose acknowledgement was lost is retried like a failure
+    private void persist(Batch batch) {
+        Set<String> stored = auditLogRepo.findExistingEventIds(batch.records.stream().map(AuditRecord::eventId).toList());
+        List<AuditRecord> records = batch.records.stream().filter(r -> !stored.contains(r.eventId())).toList();
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        List<LoanAuditLog> logs = new ArrayList<>(records.size());
+        for (AuditRecord record : records) {
+            logs.add(record.toEntity(loanRepo.getReferenceById(record.loanId())));
+        }
+        auditLogRepo.saveAll(logs);
+    }
+
+    private static void collect(Collection<AuditRecord> records, Long loanId, List<AuditRecord> into) {
+        for (AuditRecord record : records) {
+            if (record.loanId().equals(loanId)) {
+                into.add(record);
+            }
+        }
+    }
+
+    // txId is null in entries journalled before it was recorded
+    record AuditRecord(String eventId, Long loanId, LoanStatus status, String performedBy,
+                       LocalDateTime timestamp, String description, Long txId) {
+        LoanAuditLog toEntity(Loan loan) {
+            return new LoanAuditLog(null, loan, status, performedBy, timestamp, description, eventId);
+        }
+    }
+
+    // One journal segment and the committed entries written to it
+    private static final class Batch {
+        private final Queue<AuditRecord> records = new ConcurrentLinkedQueue<>();
+        // Entries journalled here whose transaction has not finished yet
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean used;
+        // Set once the segment is sealed
+        private Path segment;
+        private int attempts;
+
+        void complete(AuditRecord record, boolean committed) {
+            if (committed) {
+                records.add(record);
+            }
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.db.dsg.service;
+
+import com.db.dsg.dtos.KeysetPage;
+import com.db.dsg.dtos.ListingOrder;
+import com.db.dsg.dtos.LoanListItem;
+import com.db.dsg.dtos.RepaymentListItem;
+import com.db.dsg.model.LoanStatus;
+import com.db.dsg.repository.LoanApplicationRepository;
+import com.db.dsg.repository.LoanRepaymentRepository;
+import com.db.dsg.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keyset-paginated loan and repayment listings. Rows are ordered by (date, id) and each page
+ * starts strictly after the previous page's last row, so every page is one range scan on a
+ * (owner, date, id) index no matter how deep it is. Results are flat projections.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoanListingService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final EntityManager entityManager;
+    private final LoanApplicationRepository loanRepo;
+    private final LoanRepaymentRepository repaymentRepo;
+
+    @Transactional(readOnly = true)
+    public KeysetPage<LoanListItem> getGroupLoans(Long groupId, LoanStatus status, LocalDate from, LocalDate to,
+                                                  ListingOrder order, String cursor, Integer size) {
+        return listLoans("l.groupId = :owner", groupId, status, from, to, order, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<LoanListItem> getMemberLoans(Long memberId, LoanStatus status, LocalDate from, LocalDate to,
+                                                   ListingOrder order, String cursor, Integer size) {
+        return listLoans("l.member.id = :owner", memberId, status, from, to, order, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<RepaymentListItem> getGroupRepayments(Long groupId, LocalDate from, LocalDate to,
+                                                            ListingOrder order, String cursor, Integer size) {
+        return listRepayments("r.groupId = :owner", groupId, from, to, order, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<RepaymentListItem> getMemberRepayments(Long memberId, LocalDate from, LocalDate to,
+                                                             ListingOrder order, String cursor, Integer size) {
+        return listRepayments("r.memberId = :owner", memberId, from, to, order, cursor, size);
+    }
+
+    // Rows written before the owner columns existed; a no-op once they are filled
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillOwnerColumns() {
+        loanRepo.backfillGroupIds();
+        repaymentRepo.backfillOwnerIds();
+    }
+
+    private KeysetPage<LoanListItem> listLoans(String ownerCondition, Long ownerId, LoanStatus status,
+                                               LocalDate from, LocalDate to, ListingOrder order,
+                                               String cursor, Integer size) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("select new com.db.dsg.dtos.LoanListItem(l.id, m.id, m.name, " +
+                "l.amount, l.remainingBalance, l.status, l.purpose, l.applicationDate, l.disbursementDate, " +
+                "l.repaymentDate) from Loan l join l.member m where ").append(ownerCondition);
+        params.put("owner", ownerId);
+        if (status != null) {
+            jpql.append(" and l.status = :status");
+            params.put("status", status);
+        }
+        int limit = pageSize(size);
+        TypedQuery<LoanListItem> query = keyset(jpql, params, "l.applicationDate", "l.id",
+                from, to, order, cursor, LoanListItem.class);
+        return KeysetPage.of(query.setMaxResults(limit + 1).getResultList(), limit,
+                row -> new KeysetCursor(row.getApplicationDate(), row.getId()).encode());
+    }
+
+    private KeysetPage<RepaymentListItem> listRepayments(String ownerCondition, Long ownerId,
+                                                         LocalDate from, LocalDate to, ListingOrder order,
+                                                         String cursor, Integer size) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("select new com.db.dsg.dtos.RepaymentListItem(r.id, r.loan.id, " +
+                "m.id, m.name, r.amount, r.date) from LoanRepayment r join Member m on m.id = r.memberId where ")
+                .append(ownerCondition);
+        params.put("owner", ownerId);
+        int limit = pageSize(size);
+        TypedQuery<RepaymentListItem> query = keyset(jpql, params, "r.date", "r.id",
+                from, to, order, cursor, RepaymentListItem.class);
+        return KeysetPage.of(query.setMaxResults(limit + 1).getResultList(), limit,
+                row -> new KeysetCursor(row.getDate(), row.getId()).encode());
+    }
+
+    // Date range, cursor position and ordering; the row-value comparison maps onto the index order
+    private <T> TypedQuery<T> keyset(StringBuilder jpql, Map<String, Object> params, String dateColumn,
+                                     String idColumn, LocalDate from, LocalDate to, ListingOrder order,
+                                     String cursor, Class<T> type) {
+        if (from != null) {
+            jpql.append(" and ").append(dateColumn).append(" >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            jpql.append(" and ").append(dateColumn).append(" <= :to");
+            params.put("to", to);
+        }
+        boolean newestFirst = order != ListingOrder.OLDEST;
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            jpql.append(" and (").append(dateColumn).append(", ").append(idColumn).append(")")
+                    .append(newestFirst ? " < " : " > ").append("(:cursorDate, :cursorId)");
+            params.put("cursorDate", position.date());
+            params.put("cursorId", position.id());
+        }
+        String direction = newestFirst ? " desc" : " asc";
+        jpql.append(" order by ").append(dateColumn).append(direction).append(", ").append(idColumn).append(direction);
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), type);
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    private static int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return size;
+    }
+}
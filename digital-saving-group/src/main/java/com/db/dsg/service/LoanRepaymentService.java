@@ -1,5 +1,7 @@
 package com.db.dsg.service;
 
+import com.db.dsg.model.ChangeLog;
+import com.db.dsg.model.FundEntryType;
 import com.db.dsg.model.Loan;
 import com.db.dsg.model.LoanRepayment;
 import com.db.dsg.model.LoanStatus;
@@ -20,41 +22,69 @@ public class LoanRepaymentService {
     private final LoanApplicationRepository loanRepo;
     private final GroupFundService groupFundService;
     private final ProfitLossService profitLossService;
+    private final ReportCacheService reportCacheService;
+    private final OptimisticTransactionRunner retry;
+    private final InstallmentService installmentService;
+    private final PortfolioAgingService agingService;
+    private final MemberExposureService exposureService;
+    private final ChangeLogService changeLog;
 
     public LoanRepayment repayAndUpdateFund(Long loanId, BigDecimal amount, Member member) {
-        Loan loan = loanRepo.findById(loanId).orElseThrow(() -> new IllegalArgumentException("Loan not found"));
-
-        if (!loan.getMember().getId().equals(member.getId())) {
-            throw new AccessDeniedException("Not your loan");
-        }
-
-        if (loan.getRemainingBalance().compareTo(amount) < 0) {
-            throw new IllegalArgumentException("Repayment exceeds remaining balance");
-        }
-
-        LoanRepayment repayment = new LoanRepayment();
-        repayment.setLoan(loan);
-        repayment.setAmount(amount);
-        LoanRepayment saved = repaymentRepo.save(repayment);
-
-        loan.setRemainingBalance(loan.getRemainingBalance().subtract(amount));
-
-        if (loan.getRemainingBalance().compareTo(BigDecimal.ZERO) == 0) {
-            loan.setStatus(LoanStatus.REPAID);
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Repayment amount must be positive");
         }
-
-        loanRepo.save(loan);
-
-        // Fund update
-        groupFundService.addToFund(member.getGroup().getId(), amount);
-
-        // Assume 10% interest for illustration
-        BigDecimal interest = amount.multiply(BigDecimal.valueOf(0.10));
-        BigDecimal principal = amount.subtract(interest);
-
-        profitLossService.recordPrincipalAndInterest(member.getGroup(), principal, interest, "Loan repayment");
-
-        return saved;
+        return retry.run(() -> {
+            Loan loan = loanRepo.findById(loanId).orElseThrow(() -> new IllegalArgumentException("Loan not found"));
+
+            if (!loan.getMember().getId().equals(member.getId())) {
+                throw new AccessDeniedException("Not your loan");
+            }
+
+            if (loan.getStatus() != LoanStatus.DISBURSED) {
+                throw new IllegalStateException("Only DISBURSED loans can be repaid.");
+            }
+
+            InstallmentService.Allocation allocation = installmentService.allocate(loan, amount);
+            BigDecimal principal = allocation.principal();
+            BigDecimal interest = allocation.interest();
+
+            if (loan.getRemainingBalance().compareTo(principal) < 0) {
+                throw new IllegalArgumentException("Repayment exceeds remaining balance");
+            }
+
+            LoanRepayment repayment = new LoanRepayment();
+            repayment.setLoan(loan);
+            repayment.setAmount(amount);
+            LoanRepayment saved = repaymentRepo.save(repayment);
+
+            loan.setRemainingBalance(loan.getRemainingBalance().subtract(principal));
+
+            boolean closed = loan.getRemainingBalance().compareTo(BigDecimal.ZERO) == 0 && allocation.scheduleSettled();
+            if (closed) {
+                loan.setStatus(LoanStatus.REPAID);
+            }
+
+            Long groupId = member.getGroup().getId();
+            agingService.repaid(loan, groupId, principal);
+            loanRepo.save(loan);
+            exposureService.repaid(loan, groupId, allocation, closed);
+            changeLog.record(ChangeLog.EntityType.REPAYMENT, saved.getId(), ChangeLog.Op.CREATED, groupId, member.getId());
+            changeLog.recordLoans(List.of(loan), ChangeLog.Op.UPDATED);
+
+            // Fund update: principal back into the balance, interest as profit
+            if (principal.signum() > 0) {
+                groupFundService.addToFund(groupId, principal, FundEntryType.REPAYMENT);
+            }
+            if (interest.signum() > 0) {
+                groupFundService.addProfit(groupId, interest);
+            }
+
+            profitLossService.recordPrincipalAndInterest(member.getGroup(), principal, interest, "Loan repayment");
+
+            reportCacheService.invalidate(member.getGroup().getId(), saved.getDate());
+
+            return saved;
+        });
     }
 
     public List<LoanRepayment> getMemberRepayments(Long memberId) {
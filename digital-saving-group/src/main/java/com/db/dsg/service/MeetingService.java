@@ -1,6 +1,7 @@
 package com.db.dsg.service;
 
 import com.db.dsg.model.Attendance;
+import com.db.dsg.model.ChangeLog;
 import com.db.dsg.model.Meeting;
 import com.db.dsg.model.Member;
 import com.db.dsg.model.MemberUser;
@@ -9,6 +10,7 @@ import com.db.dsg.repository.MeetingRepository;
 import com.db.dsg.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -18,9 +20,15 @@ public class MeetingService {
     private final MeetingRepository meetingRepo;
     private final AttendanceRepository attendanceRepo;
     private final MemberRepository memberRepo;
+    private final ChangeLogService changeLog;
 
+    @Transactional
     public Meeting createMeeting(Meeting meeting) {
-        return meetingRepo.save(meeting);
+        Meeting saved = meetingRepo.save(meeting);
+        if (saved.getGroup() != null) {
+            changeLog.record(ChangeLog.EntityType.MEETING, saved.getId(), ChangeLog.Op.CREATED, saved.getGroup().getId(), null);
+        }
+        return saved;
     }
 
     public List<Meeting> getMeetingsByGroup(Long groupId) {
@@ -0,0 +1,215 @@
+package com.db.dsg.service;
+
+import com.db.dsg.dtos.LoanEligibility;
+import com.db.dsg.model.Loan;
+import com.db.dsg.model.LoanStatus;
+import com.db.dsg.model.Member;
+import com.db.dsg.model.MemberExposure;
+import com.db.dsg.model.SavingDeposit;
+import com.db.dsg.repository.MemberExposureRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps {@link MemberExposure} in step with deposits, disbursements and repayments (each
+ * update runs in the caller's transaction) and answers loan eligibility from it.
+ * A member's first event after the table was introduced builds their row from the source
+ * tables instead of applying a delta to a row that does not exist yet.
+ */
+@Service
+public class MemberExposureService {
+
+    private final MemberExposureRepository exposureRepo;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final BigDecimal savingsMultiplier;
+    private final int maxActiveLoans;
+    private final int maxLateInstallments;
+    private final int minDeposits;
+    // Exposure rows are never deleted, so a member seen once needs no further existence check
+    private final Set<Long> knownMembers = ConcurrentHashMap.newKeySet();
+
+    public MemberExposureService(MemberExposureRepository exposureRepo,
+                                 NamedParameterJdbcTemplate jdbc,
+                                 @Value("${dsg.eligibility.savings-multiplier:3}") BigDecimal savingsMultiplier,
+                                 @Value("${dsg.eligibility.max-active-loans:1}") int maxActiveLoans,
+                                 @Value("${dsg.eligibility.max-late-installments:2}") int maxLateInstallments,
+                                 @Value("${dsg.eligibility.min-deposits:1}") int minDeposits) {
+        this.exposureRepo = exposureRepo;
+        this.jdbc = jdbc;
+        this.savingsMultiplier = savingsMultiplier;
+        this.maxActiveLoans = maxActiveLoans;
+        this.maxLateInstallments = maxLateInstallments;
+        this.minDeposits = minDeposits;
+    }
+
+    // Called after the deposit was saved
+    public void deposited(Member member, BigDecimal amount, LocalDate date) {
+        if (isKnown(member.getId())) {
+            exposureRepo.addDeposits(member.getId(), member.getGroup().getId(), amount, 1, date);
+        }
+    }
+
+    // Bulk deposits, after they were saved: one upsert per member, sent as a single JDBC batch
+    public void depositedAll(Long groupId, Map<Long, BigDecimal> amountByMember, Map<Long, Integer> countByMember,
+                             LocalDate date) {
+        List<MapSqlParameterSource> updates = new ArrayList<>();
+        amountByMember.forEach((memberId, amount) -> {
+            if (isKnown(memberId)) {
+                updates.add(new MapSqlParameterSource()
+                        .addValue("memberId", memberId)
+                        .addValue("groupId", groupId)
+                        .addValue("amount", amount)
+                        .addValue("count", countByMember.get(memberId))
+                        .addValue("date", date));
+            }
+        });
+        if (!updates.isEmpty()) {
+            jdbc.batchUpdate(MemberExposureRepository.ADD_DEPOSITS, updates.toArray(new MapSqlParameterSource[0]));
+        }
+    }
+
+    // Called after the loan was marked DISBURSED
+    public void disbursed(Loan loan, Long groupId) {
+        if (isKnown(loan.getMember().getId())) {
+            exposureRepo.addDisbursement(loan.getMember().getId(), groupId, loan.getAmount());
+        }
+    }
+
+    // Called after the repayment was allocated and the loan saved; closed when it moved the loan to REPAID
+    public void repaid(Loan loan, Long groupId, InstallmentService.Allocation allocation, boolean closed) {
+        if (isKnown(loan.getMember().getId())) {
+            exposureRepo.addRepayment(loan.getMember().getId(), groupId, allocation.principal(),
+                    closed ? 1 : 0,
+                    allocation.settledOnTime(), allocation.settledLate(), LocalDate.now());
+        }
+    }
+
+    // Plain read, no rebuild on a miss
+    public Optional<MemberExposure> findExposure(Long memberId) {
+        return exposureRepo.findById(memberId);
+    }
+
+    @Transactional
+    public MemberExposure getExposure(Long memberId) {
+        return exposureRepo.findById(memberId).orElseGet(() -> {
+            exposureRepo.seed(memberId);
+            knownMembers.add(memberId);
+            return exposureRepo.findById(memberId)
+                    .orElseThrow(() -> new IllegalArgumentException("Member not found"));
+        });
+    }
+
+    // The configured rules, all evaluated so the president sees every reason at once
+    @Transactional
+    public LoanEligibility checkEligibility(Long memberId, BigDecimal requestedAmount) {
+        MemberExposure exposure = getExposure(memberId);
+        List<String> reasons = new ArrayList<>();
+
+        BigDecimal maxLoan = exposure.getTotalSavings().multiply(savingsMultiplier)
+                .subtract(exposure.getOutstandingPrincipal())
+                .max(BigDecimal.ZERO);
+        if (exposure.getDepositCount() < minDeposits) {
+            reasons.add("At least " + minDeposits + " deposits are required");
+        }
+        if (exposure.getActiveLoans() >= maxActiveLoans) {
+            reasons.add("Already has " + exposure.getActiveLoans() + " active loans (max " + maxActiveLoans + ")");
+        }
+        if (exposure.getInstallmentsLate() > maxLateInstallments) {
+            reasons.add(exposure.getInstallmentsLate() + " instalments were paid late (max " + maxLateInstallments + ")");
+        }
+        if (maxLoan.signum() == 0) {
+            reasons.add("Savings do not cover any further borrowing");
+        } else if (requestedAmount != null && requestedAmount.compareTo(maxLoan) > 0) {
+            reasons.add("Requested amount exceeds " + savingsMultiplier + "x savings less outstanding loans");
+        }
+        return new LoanEligibility(memberId, reasons.isEmpty(), maxLoan, requestedAmount, reasons, exposure);
+    }
+
+    // Recomputes every row from the source tables; run while no deposits or repayments are coming in
+    @Transactional
+    public int rebuildAll() {
+        int rows = exposureRepo.rebuildAll();
+        knownMembers.clear();
+        return rows;
+    }
+
+    // Imported deposits, after they were saved: one upsert per member with the member's totals and latest date
+    public void importedDeposits(Long groupId, List<SavingDeposit> deposits) {
+        Map<Long, BigDecimal> amountByMember = new LinkedHashMap<>();
+        Map<Long, Integer> countByMember = new HashMap<>();
+        Map<Long, LocalDate> lastDateByMember = new HashMap<>();
+        for (SavingDeposit deposit : deposits) {
+            Long memberId = deposit.getMember().getId();
+            amountByMember.merge(memberId, deposit.getAmount(), BigDecimal::add);
+            countByMember.merge(memberId, 1, Integer::sum);
+            lastDateByMember.merge(memberId, deposit.getDate(), (a, b) -> a.isAfter(b) ? a : b);
+        }
+        // Each member is checked once: a seed already counts all of the member's rows saved in this transaction
+        List<MapSqlParameterSource> updates = new ArrayList<>();
+        amountByMember.forEach((memberId, amount) -> {
+            if (isKnown(memberId)) {
+                updates.add(new MapSqlParameterSource()
+                        .addValue("memberId", memberId)
+                        .addValue("groupId", groupId)
+                        .addValue("amount", amount)
+                        .addValue("count", countByMember.get(memberId))
+                        .addValue("date", lastDateByMember.get(memberId)));
+            }
+        });
+        if (!updates.isEmpty()) {
+            jdbc.batchUpdate(MemberExposureRepository.ADD_DEPOSITS, updates.toArray(new MapSqlParameterSource[0]));
+        }
+    }
+
+    // Imported loans, after they were saved. They carry no installments: a disbursed or repaid loan
+    // counts as borrowed and its paid-down principal as repaid, as in the rebuild query
+    public void importedLoans(Long groupId, List<Loan> loans) {
+        Map<Long, List<Loan>> byMember = new LinkedHashMap<>();
+        for (Loan loan : loans) {
+            if (loan.getDisbursementDate() != null) {
+                byMember.computeIfAbsent(loan.getMember().getId(), memberId -> new ArrayList<>()).add(loan);
+            }
+        }
+        byMember.forEach((memberId, memberLoans) -> {
+            if (!isKnown(memberId)) {
+                return;
+            }
+            for (Loan loan : memberLoans) {
+                exposureRepo.addDisbursement(memberId, groupId, loan.getAmount());
+                BigDecimal principal = loan.getAmount().subtract(loan.getRemainingBalance());
+                int closed = loan.getStatus() == LoanStatus.REPAID ? 1 : 0;
+                if (principal.signum() != 0 || closed != 0) {
+                    exposureRepo.addRepayment(memberId, groupId, principal, closed, 0, 0, null);
+                }
+            }
+        });
+    }
+
+    // Unknown members get their row built from the source tables, which already include the event
+    // being recorded. If another transaction created the row first, its snapshot did not see this
+    // event, so the seed leaves that row alone and the caller applies the delta to it
+    private boolean isKnown(Long memberId) {
+        if (knownMembers.contains(memberId)) {
+            return true;
+        }
+        if (exposureRepo.existsById(memberId)) {
+            knownMembers.add(memberId);
+            return true;
+        }
+        return exposureRepo.seed(memberId) == 0;
+    }
+}
@@ -0,0 +1,55 @@
+package com.db.dsg.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own transaction and runs it again, from a fresh read, when the
+ * commit loses an optimistic version check. Concurrent writers to the same row are resolved
+ * without holding row locks; the work must therefore re-validate whatever it read.
+ * Not meant to be called inside an existing transaction, which would swallow the retry.
+ */
+@Service
+public class OptimisticTransactionRunner {
+
+    private final TransactionTemplate tx;
+    private final int maxAttempts;
+    private final long backoffMs;
+
+    public OptimisticTransactionRunner(PlatformTransactionManager transactionManager,
+                                       @Value("${dsg.optimistic-retry.max-attempts:4}") int maxAttempts,
+                                       @Value("${dsg.optimistic-retry.backoff-ms:20}") long backoffMs) {
+        this.tx = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+    }
+
+    public <T> T run(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tx.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw new IllegalStateException("Record was modified concurrently, please retry", e);
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    // Jittered so colliding writers do not retry in lockstep
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMs * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying", e);
+        }
+    }
+}
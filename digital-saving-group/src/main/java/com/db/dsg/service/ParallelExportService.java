@@ -0,0 +1,197 @@
+package com.db.dsg.service;
+
+import com.db.dsg.dtos.SavingExportRow;
+import com.db.dsg.repository.GroupRepository;
+import com.db.dsg.repository.SavingDepositRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * All-groups savings export split into group-id range shards. Each shard runs on the pool in
+ * its own read-only transaction (and therefore its own connection) and spools to temp files;
+ * the shards are then merged in group-id order, so the output is deterministic.
+ */
+@Service
+public class ParallelExportService {
+
+    private static final String[] ALL_SAVINGS_HEADER = {"Member", "Group", "Amount", "Date", "Description"};
+    private static final String[] GROUP_SAVINGS_HEADER = {"Member", "Amount", "Date", "Description"};
+
+    private final SavingDepositRepository savingRepo;
+    private final GroupRepository groupRepo;
+    private final TransactionTemplate readOnlyTx;
+    private final ForkJoinPool pool;
+    private final int shardCount;
+
+    public ParallelExportService(SavingDepositRepository savingRepo,
+                                 GroupRepository groupRepo,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${dsg.export.parallel.shards:8}") int shardCount,
+                                 @Value("${dsg.export.parallel.pool-size:4}") int poolSize) {
+        this.savingRepo = savingRepo;
+        this.groupRepo = groupRepo;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.pool = new ForkJoinPool(poolSize);
+        this.shardCount = shardCount;
+    }
+
+    // ✅ One CSV, groups in id order
+    public void writeAllSavingsCSV(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        List<ShardFile> files = exportShards(from, to, false);
+        try {
+            ExportService.csvPrinter(out, ALL_SAVINGS_HEADER).flush();
+            for (ShardFile f : files) {
+                Files.copy(f.file(), out);
+            }
+            out.flush();
+        } finally {
+            deleteAll(files);
+        }
+    }
+
+    // ✅ One ZIP entry per group
+    public void writeAllSavingsZip(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        List<ShardFile> files = exportShards(from, to, true);
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            for (ShardFile f : files) {
+                zip.putNextEntry(new ZipEntry(f.entryName()));
+                Files.copy(f.file(), zip);
+                zip.closeEntry();
+            }
+            zip.finish();
+            out.flush();
+        } finally {
+            deleteAll(files);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private List<ShardFile> exportShards(LocalDate from, LocalDate to, boolean perGroup) throws IOException {
+        Long minId = groupRepo.findMinId();
+        Long maxId = groupRepo.findMaxId();
+        if (minId == null) {
+            return List.of();
+        }
+
+        long span = maxId - minId + 1;
+        long step = (span + shardCount - 1) / shardCount;
+        List<ForkJoinTask<List<ShardFile>>> tasks = new ArrayList<>();
+        for (long start = minId; start <= maxId; start += step) {
+            long shardFrom = start;
+            long shardTo = Math.min(start + step - 1, maxId);
+            tasks.add(pool.submit(() -> writeShard(shardFrom, shardTo, from, to, perGroup)));
+        }
+
+        // Joined in submission order, which is group-id order
+        List<ShardFile> files = new ArrayList<>();
+        RuntimeException failure = null;
+        boolean complete = false;
+        try {
+            for (ForkJoinTask<List<ShardFile>> task : tasks) {
+                try {
+                    files.addAll(task.join());
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw new IOException("Parallel savings export failed", failure);
+            }
+            complete = true;
+            return files;
+        } finally {
+            // Also covers Errors and interrupts, not just failed shards
+            if (!complete) deleteAll(files);
+        }
+    }
+
+    private List<ShardFile> writeShard(long fromGroupId, long toGroupId, LocalDate from, LocalDate to, boolean perGroup) {
+        return readOnlyTx.execute(status -> {
+            List<ShardFile> files = new ArrayList<>();
+            CSVPrinter csv = null;
+            Long currentGroup = null;
+            boolean complete = false;
+            try (Stream<SavingExportRow> rows = savingRepo.streamExportRowsForGroupRange(fromGroupId, toGroupId, from, to)) {
+                for (SavingExportRow r : (Iterable<SavingExportRow>) rows::iterator) {
+                    if (csv == null || (perGroup && !r.getGroupId().equals(currentGroup))) {
+                        if (csv != null) csv.close();
+                        Path file = Files.createTempFile("dsg-savings-shard-", ".csv");
+                        files.add(new ShardFile(entryName(r), file));
+                        CSVFormat format = perGroup
+                                ? CSVFormat.DEFAULT.builder().setHeader(GROUP_SAVINGS_HEADER).build()
+                                : CSVFormat.DEFAULT;
+                        csv = new CSVPrinter(Files.newBufferedWriter(file), format);
+                        currentGroup = r.getGroupId();
+                    }
+                    if (perGroup) {
+                        csv.printRecord(r.getMemberName(), r.getAmount(), r.getDate(), r.getRemarks());
+                    } else {
+                        csv.printRecord(r.getMemberName(), r.getGroupName(), r.getAmount(), r.getDate(), r.getRemarks());
+                    }
+                }
+                if (csv != null) csv.close();
+                complete = true;
+                return files;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                // A failed query or row mapping must not leave shard files behind
+                if (!complete) {
+                    closeQuietly(csv);
+                    deleteAll(files);
+                }
+            }
+        });
+    }
+
+    private String entryName(SavingExportRow r) {
+        return r.getGroupId() + "_" + r.getGroupName().replaceAll("[^A-Za-z0-9._-]", "_") + ".csv";
+    }
+
+    private void closeQuietly(CSVPrinter csv) {
+        if (csv == null) return;
+        try {
+            csv.close();
+        } catch (IOException ignored) {
+            // already failing, the original error is rethrown
+        }
+    }
+
+    private void deleteAll(List<ShardFile> files) {
+        for (ShardFile f : files) {
+            try {
+                Files.deleteIfExists(f.file());
+            } catch (IOException ignored) {
+                // temp file, best effort
+            }
+        }
+    }
+
+    private record ShardFile(String entryName, Path file) {
+    }
+}
@@ -7,6 +7,7 @@ import com.db.dsg.repository.VoteRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,9 +20,15 @@ public class PollService {
     private final PollRepository pollRepo;
     private final VoteRepository voteRepo;
     private final MemberRepository memberRepo;
+    private final ChangeLogService changeLog;
 
+    @Transactional
     public Poll createPoll(Poll poll) {
-        return pollRepo.save(poll);
+        Poll saved = pollRepo.save(poll);
+        if (saved.getGroup() != null) {
+            changeLog.record(ChangeLog.EntityType.POLL, saved.getId(), ChangeLog.Op.CREATED, saved.getGroup().getId(), null);
+        }
+        return saved;
     }
 
     public Vote vote(Long pollId, MemberUser user, VoteOption choice) {
@@ -43,6 +50,7 @@ public class PollService {
                 .collect(Collectors.groupingBy(Vote::getChoice, Collectors.counting()));
     }
 
+    @Transactional
     public void closePoll(Long pollId, MemberUser user) {
         Member member = memberRepo.findByUser(user)
                 .orElseThrow(() -> new RuntimeException("User not linked"));
@@ -54,5 +62,8 @@ public class PollService {
         Poll poll = pollRepo.findById(pollId).orElseThrow();
         poll.setClosed(true);
         pollRepo.save(poll);
+        if (poll.getGroup() != null) {
+            changeLog.record(ChangeLog.EntityType.POLL, poll.getId(), ChangeLog.Op.UPDATED, poll.getGroup().getId(), null);
+        }
     }
 }
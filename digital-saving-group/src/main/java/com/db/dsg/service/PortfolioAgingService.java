@@ -0,0 +1,152 @@
+package com.db.dsg.service;
+
+import com.db.dsg.dtos.AgingBucketTotal;
+import com.db.dsg.dtos.LoanAging;
+import com.db.dsg.dtos.PortfolioAtRisk;
+import com.db.dsg.model.AgingBucket;
+import com.db.dsg.model.ChangeLog;
+import com.db.dsg.model.Loan;
+import com.db.dsg.model.LoanStatus;
+import com.db.dsg.repository.LoanApplicationRepository;
+import com.db.dsg.repository.LoanInstallmentRepository;
+import com.db.dsg.repository.PortfolioAgingBucketRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Portfolio-at-risk per group, kept as one row per (group, aging bucket). Disbursements and
+ * repayments adjust the rows in their own transaction; a daily roll-forward moves loans whose
+ * oldest unpaid instalment crossed a bucket boundary. Dashboards read the rows, not the loans.
+ */
+@Service
+public class PortfolioAgingService {
+
+    // Loans disbursed before schedules existed count as due 90 days after disbursement, as before
+    private static final int LEGACY_DUE_DAYS = 90;
+
+    private final PortfolioAgingBucketRepository bucketRepo;
+    private final LoanApplicationRepository loanRepo;
+    private final LoanInstallmentRepository installmentRepo;
+    private final ChangeLogService changeLog;
+    private final TransactionTemplate tx;
+
+    public PortfolioAgingService(PortfolioAgingBucketRepository bucketRepo,
+                                 LoanApplicationRepository loanRepo,
+                                 LoanInstallmentRepository installmentRepo,
+                                 ChangeLogService changeLog,
+                                 PlatformTransactionManager transactionManager) {
+        this.bucketRepo = bucketRepo;
+        this.loanRepo = loanRepo;
+        this.installmentRepo = installmentRepo;
+        this.changeLog = changeLog;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    // Newly disbursed loans of one group start out CURRENT; one upsert for the lot
+    public void disbursed(Long groupId, List<Loan> loans) {
+        BigDecimal outstanding = BigDecimal.ZERO;
+        for (Loan loan : loans) {
+            loan.setAgingBucket(AgingBucket.CURRENT);
+            outstanding = outstanding.add(loan.getRemainingBalance());
+        }
+        bucketRepo.applyDelta(groupId, AgingBucket.CURRENT.name(), loans.size(), outstanding, LocalDate.now());
+    }
+
+    // Called after the repayment was allocated and the loan's balance and status updated
+    public void repaid(Loan loan, Long groupId, BigDecimal principal) {
+        AgingBucket from = loan.getAgingBucket();
+        if (from == null) {
+            return; // not bucketed yet; the next roll-forward picks it up with its current balance
+        }
+        BigDecimal before = loan.getRemainingBalance().add(principal);
+        LocalDate today = LocalDate.now();
+        if (loan.getStatus() == LoanStatus.REPAID) {
+            loan.setAgingBucket(null);
+            bucketRepo.applyDelta(groupId, from.name(), -1, before.negate(), today);
+            return;
+        }
+        AgingBucket to = bucketOf(installmentRepo.findOldestOpenDueDate(loan.getId()).orElse(null),
+                loan.getDisbursementDate(), today);
+        if (to == from) {
+            if (principal.signum() != 0) {
+                bucketRepo.applyDelta(groupId, from.name(), 0, principal.negate(), today);
+            }
+            return;
+        }
+        loan.setAgingBucket(to);
+        bucketRepo.applyDelta(groupId, from.name(), -1, before.negate(), today);
+        bucketRepo.applyDelta(groupId, to.name(), 1, loan.getRemainingBalance(), today);
+    }
+
+    @Transactional(readOnly = true)
+    public PortfolioAtRisk getGroupPortfolioAtRisk(Long groupId) {
+        return PortfolioAtRisk.of(groupId, bucketRepo.findTotalsByGroup(groupId));
+    }
+
+    // Federation view: every group, plus the buckets summed over all groups (groupId null)
+    @Transactional(readOnly = true)
+    public List<PortfolioAtRisk> getFederationPortfolioAtRisk() {
+        Map<Long, List<AgingBucketTotal>> byGroup = new LinkedHashMap<>();
+        Map<AgingBucket, AgingBucketTotal> overall = new EnumMap<>(AgingBucket.class);
+        for (AgingBucketTotal total : bucketRepo.findAllTotals()) {
+            byGroup.computeIfAbsent(total.getGroupId(), id -> new ArrayList<>()).add(total);
+            overall.merge(total.getBucket(), new AgingBucketTotal(null, total.getBucket(), total.getLoanCount(), total.getOutstanding()),
+                    (a, b) -> new AgingBucketTotal(null, a.getBucket(), a.getLoanCount() + b.getLoanCount(),
+                            a.getOutstanding().add(b.getOutstanding())));
+        }
+        List<PortfolioAtRisk> result = new ArrayList<>(byGroup.size() + 1);
+        result.add(PortfolioAtRisk.of(null, new ArrayList<>(overall.values())));
+        byGroup.forEach((groupId, totals) -> result.add(PortfolioAtRisk.of(groupId, totals)));
+        return result;
+    }
+
+    // Each group commits separately; a loan changed concurrently is skipped and retried the next day
+    @Scheduled(cron = "${dsg.portfolio.aging.roll-forward-cron:0 15 0 * * *}")
+    public void rollForward() {
+        LocalDate today = LocalDate.now();
+        Map<Long, List<LoanAging>> byGroup = new LinkedHashMap<>();
+        for (LoanAging loan : loanRepo.findAgingCandidates(LoanStatus.DISBURSED, AgingBucket.CURRENT,
+                today, today.minusDays(LEGACY_DUE_DAYS))) {
+            byGroup.computeIfAbsent(loan.getGroupId(), id -> new ArrayList<>()).add(loan);
+        }
+        byGroup.forEach((groupId, loans) -> tx.executeWithoutResult(status -> rollForward(groupId, loans, today)));
+    }
+
+    private void rollForward(Long groupId, List<LoanAging> loans, LocalDate today) {
+        Map<AgingBucket, long[]> counts = new EnumMap<>(AgingBucket.class);
+        Map<AgingBucket, BigDecimal> amounts = new EnumMap<>(AgingBucket.class);
+        for (LoanAging loan : loans) {
+            AgingBucket from = loan.getAgingBucket();
+            AgingBucket to = bucketOf(loan.getOldestOpenDueDate(), loan.getDisbursementDate(), today);
+            if (to == from || loanRepo.moveToBucket(loan.getLoanId(), loan.getVersion(), to) == 0) {
+                continue;
+            }
+            if (from != null) {
+                counts.computeIfAbsent(from, b -> new long[1])[0]--;
+                amounts.merge(from, loan.getRemainingBalance().negate(), BigDecimal::add);
+            }
+            counts.computeIfAbsent(to, b -> new long[1])[0]++;
+            amounts.merge(to, loan.getRemainingBalance(), BigDecimal::add);
+            changeLog.record(ChangeLog.EntityType.LOAN, loan.getLoanId(), ChangeLog.Op.UPDATED, groupId, loan.getMemberId());
+        }
+        counts.forEach((bucket, count) ->
+                bucketRepo.applyDelta(groupId, bucket.name(), count[0], amounts.get(bucket), today));
+    }
+
+    private static AgingBucket bucketOf(LocalDate oldestOpenDueDate, LocalDate disbursementDate, LocalDate today) {
+        LocalDate due = oldestOpenDueDate != null ? oldestOpenDueDate : disbursementDate.plusDays(LEGACY_DUE_DAYS);
+        return AgingBucket.of(Math.max(0, ChronoUnit.DAYS.between(due, today)));
+    }
+}
@@ -1,5 +1,6 @@
 package com.db.dsg.service;
 
+import com.db.dsg.dtos.ProfitLossSummary;
 import com.db.dsg.model.Group;
 import com.db.dsg.model.ProfitLossRecord;
 import com.db.dsg.repository.ProfitLossRecordRepository;
@@ -35,5 +36,10 @@ public class ProfitLossService {
     public List<ProfitLossRecord> getGroupProfitLoss(Long groupId) {
         return profitLossRepo.findByGroup_IdOrderByDateDesc(groupId);
     }
+
+    // Totals include the daily interest accruals, which only carry interestAccrued
+    public ProfitLossSummary getGroupProfitLossSummary(Long groupId) {
+        return profitLossRepo.summarizeByGroup(groupId);
+    }
 }
 
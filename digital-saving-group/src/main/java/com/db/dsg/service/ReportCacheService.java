@@ -0,0 +1,210 @@
+package com.db.dsg.service;
+
+import com.db.dsg.model.ExportFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded LRU cache of rendered reports. A report is cached while it streams to the client,
+ * and dropped when a deposit or repayment lands in its group and date range.
+ */
+@Service
+public class ReportCacheService {
+
+    private static final Long ALL_GROUPS = -1L;
+
+    private final long maxBytes;
+    private final int maxEntryBytes;
+
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+
+    // Bumped on every invalidation so a render that raced with a write is not cached
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ReportCacheService(@Value("${dsg.export.cache.max-bytes:67108864}") long maxBytes,
+                              @Value("${dsg.export.cache.max-entry-bytes:4194304}") int maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public record Key(String reportType, Long groupId, LocalDate from, LocalDate to, ExportFormat format) {
+    }
+
+    public void write(Key key, ExportService.ReportWriter renderer, OutputStream out) throws IOException {
+        byte[] cached = get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            out.write(cached);
+            out.flush();
+            return;
+        }
+        misses.incrementAndGet();
+
+        long generation = generation(key.groupId()).get();
+        long allGenerations = generation(ALL_GROUPS).get();
+        TeeOutputStream tee = new TeeOutputStream(out, maxEntryBytes);
+        renderer.writeTo(tee);
+        tee.flush();
+
+        if (!tee.overflowed()
+                && generation(key.groupId()).get() == generation
+                && generation(ALL_GROUPS).get() == allGenerations) {
+            put(key, tee.captured());
+        }
+    }
+
+    // ✅ Drop every cached report of the group (and every all-groups report) covering the date
+    public void invalidate(Long groupId, LocalDate date) {
+        afterCommit(() -> evict(groupId, date));
+    }
+
+    // ✅ Drop every cached report of the group (and every all-groups report), whatever its dates
+    public void invalidateGroup(Long groupId) {
+        afterCommit(() -> evictGroup(groupId));
+    }
+
+    public Map<String, Long> getStats() {
+        synchronized (entries) {
+            return Map.of(
+                    "hits", hits.get(),
+                    "misses", misses.get(),
+                    "evictions", evictions.get(),
+                    "invalidations", invalidations.get(),
+                    "entries", (long) entries.size(),
+                    "bytes", currentBytes);
+        }
+    }
+
+    // Inside a transaction the bump waits for the commit: bumped earlier, a render started
+    // before the commit would read the old rows yet see the new generation and be cached
+    private void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+
+    private void evict(Long groupId, LocalDate date) {
+        generation(groupId).incrementAndGet();
+        generation(ALL_GROUPS).incrementAndGet();
+        synchronized (entries) {
+            Iterator<Map.Entry<Key, byte[]>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Key, byte[]> e = it.next();
+                Key k = e.getKey();
+                boolean sameGroup = k.groupId() == null || k.groupId().equals(groupId);
+                if (sameGroup && !date.isBefore(k.from()) && !date.isAfter(k.to())) {
+                    currentBytes -= e.getValue().length;
+                    it.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void evictGroup(Long groupId) {
+        generation(groupId).incrementAndGet();
+        generation(ALL_GROUPS).incrementAndGet();
+        synchronized (entries) {
+            Iterator<Map.Entry<Key, byte[]>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Key, byte[]> e = it.next();
+                Long keyGroup = e.getKey().groupId();
+                if (keyGroup == null || keyGroup.equals(groupId)) {
+                    currentBytes -= e.getValue().length;
+                    it.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private byte[] get(Key key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void put(Key key, byte[] data) {
+        synchronized (entries) {
+            byte[] previous = entries.put(key, data);
+            currentBytes += data.length - (previous != null ? previous.length : 0);
+
+            Iterator<byte[]> eldest = entries.values().iterator();
+            while (currentBytes > maxBytes && eldest.hasNext()) {
+                currentBytes -= eldest.next().length;
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private AtomicLong generation(Long groupId) {
+        return generations.computeIfAbsent(groupId != null ? groupId : ALL_GROUPS, id -> new AtomicLong());
+    }
+
+    // Passes everything through and keeps a copy until the entry limit is exceeded
+    private static class TeeOutputStream extends FilterOutputStream {
+        private final int limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        TeeOutputStream(OutputStream out, int limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            capture(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        private void capture(byte[] b, int off, int len) {
+            if (copy == null) return;
+            if (copy.size() + len > limit) {
+                copy = null;
+                return;
+            }
+            copy.write(b, off, len);
+        }
+
+        boolean overflowed() {
+            return copy == null;
+        }
+
+        byte[] captured() {
+            return copy.toByteArray();
+        }
+    }
+}
@@ -1,55 +1,174 @@
 package com.db.dsg.service;
 
+import com.db.dsg.dtos.BulkDepositEntry;
+import com.db.dsg.dtos.BulkDepositRequest;
+import com.db.dsg.dtos.BulkDepositResult;
+import com.db.dsg.dtos.MonthlySavingPoint;
 import com.db.dsg.dtos.SavingDepositRequest;
 import com.db.dsg.dtos.SavingSummaryResponse;
+import com.db.dsg.model.ChangeLog;
+import com.db.dsg.model.FundEntryType;
 import com.db.dsg.model.Member;
 import com.db.dsg.model.SavingDeposit;
+import com.db.dsg.repository.GroupSavingTotalsRepository;
+import com.db.dsg.repository.MemberRepository;
 import com.db.dsg.repository.SavingDepositRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class SavingDepositService {
+    private static final int MAX_BULK_DEPOSITS = 500;
 
     private final SavingDepositRepository savingDepositRepo;
+    private final MemberRepository memberRepo;
+    private final ReportCacheService reportCacheService;
+    private final GroupFundService groupFundService;
+    private final MemberExposureService exposureService;
+    private final GroupSavingTotalsRepository groupTotalsRepo;
+    private final SavingRollupService rollupService;
+    private final ChangeLogService changeLog;
 
+    @Transactional
     public SavingDeposit save(SavingDepositRequest req, Member member) {
         SavingDeposit deposit = new SavingDeposit();
         deposit.setAmount(req.getAmount());
         deposit.setRemarks(req.getRemarks());
         deposit.setMember(member);
-        return savingDepositRepo.save(deposit);
+        SavingDeposit saved = savingDepositRepo.save(deposit);
+        exposureService.deposited(member, saved.getAmount(), saved.getDate());
+        rollupService.deposited(member.getId(), member.getGroup().getId(), saved.getAmount(), saved.getDate());
+        changeLog.record(ChangeLog.EntityType.DEPOSIT, saved.getId(), ChangeLog.Op.CREATED,
+                member.getGroup().getId(), member.getId());
+        addToGroupTotals(member.getGroup().getId(), saved.getAmount(), 1, saved.getDate());
+        // Groups without a fund row keep accepting deposits; reconciliation repair credits them later
+        if (groupFundService.hasFund(member.getGroup().getId())) {
+            groupFundService.addToFund(member.getGroup().getId(), saved.getAmount(), FundEntryType.DEPOSIT);
+        }
+
+        reportCacheService.invalidate(member.getGroup().getId(), saved.getDate());
+        return saved;
+    }
+
+    /**
+     * A whole meeting's collection in one transaction: members checked in one query, deposits
+     * inserted in JDBC batches, and one update each for the fund, the group totals and every
+     * member's totals. Any invalid entry rejects the whole request.
+     */
+    @Transactional
+    public BulkDepositResult saveBulk(BulkDepositRequest req, Long groupId) {
+        List<BulkDepositEntry> entries = req.getDeposits();
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("No deposits given");
+        }
+        if (entries.size() > MAX_BULK_DEPOSITS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_DEPOSITS + " deposits per request");
+        }
+        LocalDate date = req.getDate() != null ? req.getDate() : LocalDate.now();
+        if (date.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Deposit date cannot be in the future");
+        }
+
+        Set<Long> memberIds = new HashSet<>();
+        for (BulkDepositEntry entry : entries) {
+            if (entry.getMemberId() == null || entry.getAmount() == null || entry.getAmount().signum() <= 0) {
+                throw new IllegalArgumentException("Every deposit needs a member and a positive amount");
+            }
+            memberIds.add(entry.getMemberId());
+        }
+        List<Long> found = memberRepo.findIdsInGroup(memberIds, groupId);
+        if (found.size() != memberIds.size()) {
+            memberIds.removeAll(found);
+            throw new IllegalArgumentException("Members not found in group " + groupId + ": " + memberIds);
+        }
+
+        List<SavingDeposit> deposits = new ArrayList<>(entries.size());
+        Map<Long, BigDecimal> amountByMember = new LinkedHashMap<>();
+        Map<Long, Integer> countByMember = new HashMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (BulkDepositEntry entry : entries) {
+            SavingDeposit deposit = new SavingDeposit();
+            deposit.setAmount(entry.getAmount());
+            deposit.setRemarks(entry.getRemarks());
+            deposit.setDate(date);
+            deposit.setMember(memberRepo.getReferenceById(entry.getMemberId()));
+            deposits.add(deposit);
+            amountByMember.merge(entry.getMemberId(), entry.getAmount(), BigDecimal::add);
+            countByMember.merge(entry.getMemberId(), 1, Integer::sum);
+            total = total.add(entry.getAmount());
+        }
+        savingDepositRepo.saveAll(deposits);
+
+        exposureService.depositedAll(groupId, amountByMember, countByMember, date);
+        rollupService.depositedAll(groupId, amountByMember, countByMember, date);
+        changeLog.recordDeposits(deposits, groupId);
+        addToGroupTotals(groupId, total, deposits.size(), date);
+        if (groupFundService.hasFund(groupId)) {
+            groupFundService.record(groupId, FundEntryType.DEPOSIT, total,
+                    "Meeting collection of " + deposits.size() + " deposits");
+        }
+
+        reportCacheService.invalidate(groupId, date);
+        return new BulkDepositResult(groupId, date, deposits.size(), memberIds.size(), total);
     }
 
     public List<SavingDeposit> getDepositsForGroup(Long groupId) {
         return savingDepositRepo.findByMember_Group_Id(groupId);
     }
 
+    // Running totals row, or one SUM/COUNT query for groups that have not had a deposit since it existed
+    @Transactional(readOnly = true)
     public SavingSummaryResponse getGroupSavingSummary(Long groupId) {
-        List<SavingDeposit> deposits = getDepositsForGroup(groupId);
-        BigDecimal total = deposits.stream()
-                .map(SavingDeposit::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        return new SavingSummaryResponse(total, (long) deposits.size());
+        return groupTotalsRepo.findById(groupId)
+                .map(t -> new SavingSummaryResponse(t.getTotalDeposited(), t.getDepositCount(), t.getLastDepositDate()))
+                .orElseGet(() -> savingDepositRepo.summarizeByGroup(groupId));
     }
 
     public List<SavingDeposit> getMemberDepositHistory(Long memberId) {
         return savingDepositRepo.findByMember_IdOrderByDateDesc(memberId);
     }
 
+    // Member totals are kept on the exposure summary
+    @Transactional(readOnly = true)
     public SavingSummaryResponse getMemberSavingSummary(Long memberId) {
-        List<SavingDeposit> deposits = savingDepositRepo.findByMember_Id(memberId);
-        BigDecimal total = deposits.stream()
-                .map(SavingDeposit::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        return new SavingSummaryResponse(total, (long) deposits.size());
+        return exposureService.findExposure(memberId)
+                .map(e -> new SavingSummaryResponse(e.getTotalSavings(), e.getDepositCount(), e.getLastDepositDate()))
+                .orElseGet(() -> savingDepositRepo.summarizeByMember(memberId));
     }
 
     public List<SavingDeposit> trackMyDeposits(Member member) {
         return savingDepositRepo.findByMember_IdOrderByDateDesc(member.getId());
     }
+
+    public List<MonthlySavingPoint> getGroupMonthlySavings(Long groupId, Integer months) {
+        return rollupService.getGroupSeries(groupId, months);
+    }
+
+    public List<MonthlySavingPoint> getMemberMonthlySavings(Long memberId, Integer months) {
+        return rollupService.getMemberSeries(memberId, months);
+    }
+
+    public int rebuildMonthlySavings() {
+        return rollupService.backfill();
+    }
+
+    // First deposit since the totals table was introduced: seed it from the deposits table, these
+    // deposits included. A seed that lost the race to another transaction falls back to the delta
+    private void addToGroupTotals(Long groupId, BigDecimal amount, int count, LocalDate date) {
+        if (groupTotalsRepo.addDeposits(groupId, amount, count, date) == 0 && groupTotalsRepo.seed(groupId) == 0) {
+            groupTotalsRepo.addDeposits(groupId, amount, count, date);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+package com.db.dsg.service;
+
+import com.db.dsg.dtos.MonthlySavingPoint;
+import com.db.dsg.model.SavingDeposit;
+import com.db.dsg.repository.GroupMonthlySavingRepository;
+import com.db.dsg.repository.GroupRepository;
+import com.db.dsg.repository.MemberMonthlySavingRepository;
+import com.db.dsg.repository.SavingDepositRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Monthly deposit rollups per member and per group, kept in step with every deposit inside its
+ * transaction, so a chart of the last N months reads at most N rows. The backfill recomputes
+ * them from the deposits table in group-id chunks, one transaction per chunk.
+ *
+ * <p>A group's rollups are guarded by a transaction-scoped advisory lock: every delta takes it
+ * shared, so deposits never wait on each other, and the backfill takes it exclusively for the
+ * groups it recomputes. A deposit committed before the backfill reads the table is in its sums;
+ * one recorded later waits for the chunk to commit and is added on top of the rebuilt rows.
+ */
+@Service
+public class SavingRollupService {
+
+    private static final int DEFAULT_MONTHS = 24;
+    private static final int MAX_MONTHS = 120;
+
+    // Two-int advisory key: a fixed class for the rollups and the group id folded into an int.
+    // Two groups sharing a key only ever wait on each other, which costs time, not correctness
+    private static final String LOCK_KEY = "hashtext('saving_rollup'), cast(%s %% 2147483647 as int)";
+    private static final String LOCK_SHARED = "select pg_advisory_xact_lock_shared(" + LOCK_KEY.formatted(":groupId") + ")";
+    private static final String LOCK_RANGE = "select pg_advisory_xact_lock(" + LOCK_KEY.formatted("g") + ") " +
+            "from generate_series(cast(:fromGroupId as bigint), cast(:toGroupId as bigint)) g";
+
+    private final MemberMonthlySavingRepository memberRollupRepo;
+    private final GroupMonthlySavingRepository groupRollupRepo;
+    private final GroupRepository groupRepo;
+    private final SavingDepositRepository depositRepo;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+
+    public SavingRollupService(MemberMonthlySavingRepository memberRollupRepo,
+                               GroupMonthlySavingRepository groupRollupRepo,
+                               GroupRepository groupRepo,
+                               SavingDepositRepository depositRepo,
+                               NamedParameterJdbcTemplate jdbc,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${dsg.savings.rollup.backfill-chunk-size:500}") int chunkSize) {
+        this.memberRollupRepo = memberRollupRepo;
+        this.groupRollupRepo = groupRollupRepo;
+        this.groupRepo = groupRepo;
+        this.depositRepo = depositRepo;
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    // Called in the deposit's transaction, after it was saved
+    public void deposited(Long memberId, Long groupId, BigDecimal amount, LocalDate date) {
+        LocalDate month = date.withDayOfMonth(1);
+        lockShared(groupId);
+        memberRollupRepo.addDeposits(memberId, groupId, month, amount, 1);
+        groupRollupRepo.addDeposits(groupId, month, amount, 1);
+    }
+
+    // Bulk deposits share one date: one group upsert and one member upsert each, sent as a single JDBC batch
+    public void depositedAll(Long groupId, Map<Long, BigDecimal> amountByMember, Map<Long, Integer> countByMember,
+                             LocalDate date) {
+        LocalDate month = date.withDayOfMonth(1);
+        List<MapSqlParameterSource> updates = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        long count = 0;
+        for (Map.Entry<Long, BigDecimal> entry : amountByMember.entrySet()) {
+            int memberCount = countByMember.get(entry.getKey());
+            updates.add(new MapSqlParameterSource()
+                    .addValue("memberId", entry.getKey())
+                    .addValue("groupId", groupId)
+                    .addValue("month", month)
+                    .addValue("amount", entry.getValue())
+                    .addValue("count", memberCount));
+            total = total.add(entry.getValue());
+            count += memberCount;
+        }
+        if (!updates.isEmpty()) {
+            lockShared(groupId);
+            jdbc.batchUpdate(MemberMonthlySavingRepository.ADD_DEPOSITS, updates.toArray(new MapSqlParameterSource[0]));
+            groupRollupRepo.addDeposits(groupId, month, total, count);
+        }
+    }
+
+    public List<MonthlySavingPoint> getMemberSeries(Long memberId, Integer months) {
+        YearMonth first = firstMonth(months);
+        return fill(first, YearMonth.now(), memberRollupRepo.findSeries(memberId, first.atDay(1)));
+    }
+
+    public List<MonthlySavingPoint> getGroupSeries(Long groupId, Integer months) {
+        YearMonth first = firstMonth(months);
+        return fill(first, YearMonth.now(), groupRollupRepo.findSeries(groupId, first.atDay(1)));
+    }
+
+    // Imported deposits span many dates: one upsert per member-month and one per group month, in key
+    // order so two imports into the same group lock the rollup rows in the same order
+    public void importedDeposits(Long groupId, List<SavingDeposit> deposits) {
+        if (deposits.isEmpty()) {
+            return;
+        }
+        Map<Long, Map<LocalDate, BigDecimal>> amounts = new TreeMap<>();
+        Map<Long, Map<LocalDate, Integer>> counts = new HashMap<>();
+        Map<LocalDate, BigDecimal> groupAmounts = new TreeMap<>();
+        Map<LocalDate, Integer> groupCounts = new HashMap<>();
+        for (SavingDeposit deposit : deposits) {
+            Long memberId = deposit.getMember().getId();
+            LocalDate month = deposit.getDate().withDayOfMonth(1);
+            amounts.computeIfAbsent(memberId, id -> new TreeMap<>()).merge(month, deposit.getAmount(), BigDecimal::add);
+            counts.computeIfAbsent(memberId, id -> new HashMap<>()).merge(month, 1, Integer::sum);
+            groupAmounts.merge(month, deposit.getAmount(), BigDecimal::add);
+            groupCounts.merge(month, 1, Integer::sum);
+        }
+        lockShared(groupId);
+        List<MapSqlParameterSource> updates = new ArrayList<>();
+        amounts.forEach((memberId, byMonth) -> byMonth.forEach((month, amount) -> updates.add(new MapSqlParameterSource()
+                .addValue("memberId", memberId)
+                .addValue("groupId", groupId)
+                .addValue("month", month)
+                .addValue("amount", amount)
+                .addValue("count", counts.get(memberId).get(month)))));
+        jdbc.batchUpdate(MemberMonthlySavingRepository.ADD_DEPOSITS, updates.toArray(new MapSqlParameterSource[0]));
+        groupAmounts.forEach((month, amount) -> groupRollupRepo.addDeposits(groupId, month, amount, groupCounts.get(month)));
+    }
+
+    /**
+     * Recomputes all rollups from the deposits table; returns the number of group-month rows
+     * written. Each chunk locks its groups, deletes their rollup rows and inserts them again from
+     * the deposits, so deposits arriving meanwhile are neither lost nor counted twice and a
+     * re-run gives the same rows.
+     */
+    public int backfill() {
+        Long minId = groupRepo.findMinId();
+        Long maxId = groupRepo.findMaxId();
+        int rows = 0;
+        if (minId == null) {
+            return rows;
+        }
+        for (long start = minId; start <= maxId; start += chunkSize) {
+            long chunkFrom = start;
+            long chunkTo = Math.min(start + chunkSize - 1, maxId);
+            rows += tx.execute(status -> {
+                jdbc.queryForList(LOCK_RANGE, new MapSqlParameterSource()
+                        .addValue("fromGroupId", chunkFrom)
+                        .addValue("toGroupId", chunkTo));
+                memberRollupRepo.deleteGroupRange(chunkFrom, chunkTo);
+                groupRollupRepo.deleteGroupRange(chunkFrom, chunkTo);
+                memberRollupRepo.rebuildGroupRange(chunkFrom, chunkTo);
+                return groupRollupRepo.rebuildGroupRange(chunkFrom, chunkTo);
+            });
+        }
+        return rows;
+    }
+
+    // First start with the rollup tables: fill them from the existing deposits
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (groupRollupRepo.count() == 0 && depositRepo.count() > 0) {
+            backfill();
+        }
+    }
+
+    private static YearMonth firstMonth(Integer months) {
+        int n = months != null ? months : DEFAULT_MONTHS;
+        if (n < 1 || n > MAX_MONTHS) {
+            throw new IllegalArgumentException("months must be between 1 and " + MAX_MONTHS);
+        }
+        return YearMonth.now().minusMonths(n - 1);
+    }
+
+    // Held until the deposit's transaction ends; only a backfill of the same group waits on it
+    private void lockShared(Long groupId) {
+        jdbc.queryForList(LOCK_SHARED, new MapSqlParameterSource("groupId", groupId));
+    }
+
+    // One point per month from first to last, zero for months without deposits; rows are ordered by month
+    static List<MonthlySavingPoint> fill(YearMonth first, YearMonth last, List<MonthlySavingPoint> rows) {
+        List<MonthlySavingPoint> series = new ArrayList<>();
+        int i = 0;
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            if (i < rows.size() && rows.get(i).getMonth().equals(month)) {
+                series.add(rows.get(i++));
+            } else {
+                series.add(new MonthlySavingPoint(month, BigDecimal.ZERO, 0));
+            }
+        }
+        return series;
+    }
+}
@@ -0,0 +1,37 @@
+package com.db.dsg.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tables that switched from IDENTITY to a pooled sequence keep their old rows, and a new
+ * sequence would hand out ids that are already taken. At startup, after Hibernate has created
+ * the sequences and before anything inserts, each one is moved past its table's highest id.
+ * A sequence already ahead is left alone, so instances that are running keep their blocks.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class SequenceAlignmentService {
+
+    private final JdbcTemplate jdbc;
+
+    public SequenceAlignmentService(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    void alignAll() {
+        align("loan_audit_log_seq", "loan_audit_log");
+        align("saving_deposit_seq", "saving_deposit");
+    }
+
+    // Pooled ids never exceed the sequence value, so a value at or past max(id) is safe
+    private void align(String sequence, String table) {
+        jdbc.query("select setval('" + sequence + "', m.max_id) " +
+                "from (select coalesce(max(id), 0) as max_id from " + table + ") m, " + sequence + " s " +
+                "where s.last_value < m.max_id", rs -> {
+        });
+    }
+}
@@ -0,0 +1,167 @@
+package com.db.dsg.service;
+
+import com.db.dsg.dtos.SyncDeletion;
+import com.db.dsg.dtos.SyncResponse;
+import com.db.dsg.model.ChangeLog;
+import com.db.dsg.model.Loan;
+import com.db.dsg.model.LoanRepayment;
+import com.db.dsg.model.Meeting;
+import com.db.dsg.model.MemberUser;
+import com.db.dsg.model.Poll;
+import com.db.dsg.model.Role;
+import com.db.dsg.model.SavingDeposit;
+import com.db.dsg.repository.ChangeLogRepository;
+import com.db.dsg.repository.LoanApplicationRepository;
+import com.db.dsg.repository.LoanRepaymentRepository;
+import com.db.dsg.repository.MeetingRepository;
+import com.db.dsg.repository.PollRepository;
+import com.db.dsg.repository.SavingDepositRepository;
+import com.db.dsg.util.SyncToken;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Delta sync for the offline client. A sync without a token returns the caller's records in
+ * full; later syncs return only records named in the change log since the token, in their
+ * current state, plus the ids of deleted ones.
+ *
+ * <p>Tokens are transaction watermarks rather than change ids: change ids are handed out
+ * before commit, so a change with a lower id can become visible after a higher one has been
+ * delivered. A sync only reads changes of transactions older than the oldest one still running,
+ * which are final, and the next sync starts where that window ended. Large windows are paged;
+ * the token then carries the window's end and the last change id delivered. Delivery is
+ * at-least-once, clients apply records by id.
+ *
+ * <p>Officers see every record of their group, members only their own deposits, loans and
+ * repayments; meetings and polls are group-wide.
+ */
+@Service
+public class SyncService {
+
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 2000;
+    private static final Set<Role> GROUP_WIDE = Set.of(Role.PRESIDENT, Role.TREASURER, Role.GROUP_ADMIN, Role.SUPER_ADMIN);
+
+    private final ChangeLogRepository changeLogRepo;
+    private final SavingDepositRepository depositRepo;
+    private final LoanApplicationRepository loanRepo;
+    private final LoanRepaymentRepository repaymentRepo;
+    private final MeetingRepository meetingRepo;
+    private final PollRepository pollRepo;
+    private final TransactionTemplate snapshotTx;
+
+    public SyncService(ChangeLogRepository changeLogRepo,
+                       SavingDepositRepository depositRepo,
+                       LoanApplicationRepository loanRepo,
+                       LoanRepaymentRepository repaymentRepo,
+                       MeetingRepository meetingRepo,
+                       PollRepository pollRepo,
+                       PlatformTransactionManager transactionManager) {
+        this.changeLogRepo = changeLogRepo;
+        this.depositRepo = depositRepo;
+        this.loanRepo = loanRepo;
+        this.repaymentRepo = repaymentRepo;
+        this.meetingRepo = meetingRepo;
+        this.pollRepo = pollRepo;
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setReadOnly(true);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    public SyncResponse sync(MemberUser user, String token, Integer size) {
+        if (user.getGroup() == null) {
+            throw new IllegalStateException("User is not linked to a group");
+        }
+        Long groupId = user.getGroup().getId();
+        Long memberId = user.getMember() != null ? user.getMember().getId() : null;
+        boolean allMembers = user.getRoles().stream().anyMatch(GROUP_WIDE::contains);
+        if (!allMembers && memberId == null) {
+            throw new IllegalStateException("User is not linked to a member");
+        }
+        int pageSize = size != null ? Math.min(Math.max(size, 1), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+
+        return token == null || token.isBlank()
+                ? snapshotTx.execute(status -> full(groupId, memberId, allMembers))
+                : snapshotTx.execute(status -> delta(groupId, memberId, allMembers, SyncToken.decode(token), pageSize));
+    }
+
+    // The watermark is read first, so the snapshot holds every change below it
+    private SyncResponse full(Long groupId, Long memberId, boolean allMembers) {
+        long watermark = changeLogRepo.findCompletedTxWatermark();
+        SyncResponse response = new SyncResponse();
+        response.setToken(SyncToken.at(watermark).encode());
+        response.setFull(true);
+        if (allMembers) {
+            response.setDeposits(depositRepo.findByMember_Group_Id(groupId));
+            response.setLoans(loanRepo.findByMember_Group_Id(groupId));
+            response.setRepayments(repaymentRepo.findByLoan_Member_Group_Id(groupId));
+        } else {
+            response.setDeposits(depositRepo.findByMember_IdOrderByDateDesc(memberId));
+            response.setLoans(loanRepo.findByMember_Id(memberId));
+            response.setRepayments(repaymentRepo.findByLoan_Member_Id(memberId));
+        }
+        response.setMeetings(meetingRepo.findByGroupId(groupId));
+        response.setPolls(pollRepo.findByGroupId(groupId));
+        return response;
+    }
+
+    private SyncResponse delta(Long groupId, Long memberId, boolean allMembers, SyncToken token, int pageSize) {
+        long toTx = token.inWindow() ? token.toTx() : Math.max(changeLogRepo.findCompletedTxWatermark(), token.fromTx());
+        List<ChangeLog> changes = changeLogRepo.findChanges(groupId, memberId != null ? memberId : -1L, allMembers,
+                token.fromTx(), toTx, token.afterId(), PageRequest.of(0, pageSize));
+
+        SyncResponse response = new SyncResponse();
+        response.setHasMore(changes.size() == pageSize);
+        response.setToken((response.isHasMore()
+                ? new SyncToken(token.fromTx(), toTx, changes.get(changes.size() - 1).getId())
+                : SyncToken.at(toTx)).encode());
+
+        // Last operation per record; several changes to one record send it once
+        Map<ChangeLog.EntityType, Map<Long, ChangeLog.Op>> latest = new EnumMap<>(ChangeLog.EntityType.class);
+        for (ChangeLog change : changes) {
+            latest.computeIfAbsent(change.getEntityType(), t -> new LinkedHashMap<>()).put(change.getEntityId(), change.getOp());
+        }
+        response.setDeposits(load(ChangeLog.EntityType.DEPOSIT, latest, depositRepo, SavingDeposit::getId, response));
+        response.setLoans(load(ChangeLog.EntityType.LOAN, latest, loanRepo, Loan::getId, response));
+        response.setRepayments(load(ChangeLog.EntityType.REPAYMENT, latest, repaymentRepo, LoanRepayment::getId, response));
+        response.setMeetings(load(ChangeLog.EntityType.MEETING, latest, meetingRepo, Meeting::getId, response));
+        response.setPolls(load(ChangeLog.EntityType.POLL, latest, pollRepo, Poll::getId, response));
+        return response;
+    }
+
+    // Current state of the changed records of one type; deleted or since-vanished ones go to the deletions
+    private static <T> List<T> load(ChangeLog.EntityType type, Map<ChangeLog.EntityType, Map<Long, ChangeLog.Op>> latest,
+                                    JpaRepository<T, Long> repo, Function<T, Long> idOf, SyncResponse response) {
+        Map<Long, ChangeLog.Op> ops = latest.getOrDefault(type, Collections.emptyMap());
+        List<Long> live = new ArrayList<>();
+        ops.forEach((id, op) -> {
+            if (op == ChangeLog.Op.DELETED) {
+                response.getDeleted().add(new SyncDeletion(type, id));
+            } else {
+                live.add(id);
+            }
+        });
+        if (live.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<T> found = repo.findAllById(live);
+        if (found.size() < live.size()) {
+            found.forEach(record -> live.remove(idOf.apply(record)));
+            live.forEach(id -> response.getDeleted().add(new SyncDeletion(type, id)));
+        }
+        return found;
+    }
+}
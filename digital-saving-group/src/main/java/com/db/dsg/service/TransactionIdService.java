@@ -0,0 +1,56 @@
+package com.db.dsg.service;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * PostgreSQL transaction ids for local journals: a record written before its transaction
+ * commits carries the id, and recovery keeps only records whose transaction committed.
+ */
+@Service
+public class TransactionIdService {
+
+    private static final String CURRENT = "select cast(cast(pg_current_xact_id() as text) as bigint)";
+    private static final String COMMITTED = "select cast(x as bigint) from unnest(string_to_array(:txIds, ',')) x " +
+            "where pg_xact_status(cast(x as xid8)) = 'committed'";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    // Resource key for the current transaction's id; one query per transaction, not per record
+    private final Object resourceKey = new Object();
+
+    public TransactionIdService(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // Assigns the transaction an id if it has none yet; needs an active transaction synchronization
+    public long current() {
+        Long txId = (Long) TransactionSynchronizationManager.getResource(resourceKey);
+        if (txId == null) {
+            txId = jdbc.queryForObject(CURRENT, new MapSqlParameterSource(), Long.class);
+            TransactionSynchronizationManager.bindResource(resourceKey, txId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(resourceKey);
+                }
+            });
+        }
+        return txId;
+    }
+
+    // Of the given transaction ids, the ones that committed
+    public Set<Long> committed(Collection<Long> txIds) {
+        if (txIds.isEmpty()) {
+            return Set.of();
+        }
+        String ids = String.join(",", txIds.stream().map(String::valueOf).toList());
+        return new HashSet<>(jdbc.queryForList(COMMITTED, new MapSqlParameterSource("txIds", ids), Long.class));
+    }
+}
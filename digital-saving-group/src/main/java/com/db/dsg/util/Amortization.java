@@ -0,0 +1,44 @@
+package com.db.dsg.util;
+
+/**
+ * Equal-instalment (reducing balance) schedules in integer paise. Only the EMI itself is
+ * derived in floating point; every per-period figure is exact long arithmetic rounded half-up,
+ * and the last instalment takes the remaining balance, so the principal parts always add up
+ * to the loan amount. Callers supply the output arrays, nothing is allocated per instalment.
+ */
+public final class Amortization {
+
+    // Annual rate in basis points to a monthly fraction: bps / 10_000 / 12
+    private static final long MONTHLY_BPS_DIVISOR = 120_000L;
+
+    private Amortization() {
+    }
+
+    public static long emi(long principal, int annualRateBps, int months) {
+        if (annualRateBps == 0) {
+            return (principal + months - 1) / months;
+        }
+        double r = annualRateBps / (double) MONTHLY_BPS_DIVISOR;
+        return (long) Math.ceil(principal * r / (1 - Math.pow(1 + r, -months)));
+    }
+
+    public static long monthlyInterest(long balance, int annualRateBps) {
+        return (Math.multiplyExact(balance, (long) annualRateBps) + MONTHLY_BPS_DIVISOR / 2) / MONTHLY_BPS_DIVISOR;
+    }
+
+    // Fills the first {@code months} slots of both arrays
+    public static void schedule(long principal, int annualRateBps, int months, long[] principalOut, long[] interestOut) {
+        if (months <= 0 || principalOut.length < months || interestOut.length < months) {
+            throw new IllegalArgumentException("Invalid schedule length: " + months);
+        }
+        long emi = emi(principal, annualRateBps, months);
+        long balance = principal;
+        for (int i = 0; i < months; i++) {
+            long interest = monthlyInterest(balance, annualRateBps);
+            long principalPart = i == months - 1 ? balance : Math.min(balance, Math.max(0, emi - interest));
+            principalOut[i] = principalPart;
+            interestOut[i] = interest;
+            balance -= principalPart;
+        }
+    }
+}
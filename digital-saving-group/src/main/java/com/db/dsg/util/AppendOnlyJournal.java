@@ -0,0 +1,196 @@
+package com.db.dsg.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Line-oriented write-ahead journal split into numbered segment files. Records are appended to
+ * the open segment and, when {@code sync} is set, forced to disk before {@link #append} returns.
+ * Writes and forces take separate locks (group commit): appenders that arrive while a force is
+ * running write their records and are then covered together by the next single force, so
+ * concurrent writers share fsyncs instead of queueing one fsync each.
+ * {@link #rotate()} seals the open segment so its records can be applied and the file deleted;
+ * segments left over from a previous run are reported by {@link #sealedSegments()}. Every
+ * segment starts with a random id ({@link #segmentId}) that stays unique after numbering restarts.
+ */
+public class AppendOnlyJournal implements Closeable {
+
+    private static final String SUFFIX = ".journal";
+    private static final String HEADER = "#";
+    private static final String DEAD_LETTER_DIR = "dead-letter";
+
+    private final Path dir;
+    private final String prefix;
+    private final boolean sync;
+    private final List<Path> recovered;
+    private long nextIndex;
+    private Path current;
+    private String currentId;
+    private FileChannel channel;
+    // Bytes written to the open segment, and which segment it is; guarded by this
+    private long written;
+    private long generation;
+    // Held while forcing and by whatever closes the channel; taken before this, never after
+    private final Object syncLock = new Object();
+    // How far the open segment is known to be on disk; guarded by syncLock
+    private long syncedGeneration;
+    private long synced;
+
+    public AppendOnlyJournal(Path dir, String prefix, boolean sync) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.prefix = prefix;
+        this.sync = sync;
+        this.recovered = listSegments();
+        this.nextIndex = recovered.isEmpty() ? 1 : indexOf(recovered.get(recovered.size() - 1)) + 1;
+        open();
+    }
+
+    public void append(String record) throws IOException {
+        long gen;
+        long end;
+        synchronized (this) {
+            write(record);
+            gen = generation;
+            end = written;
+        }
+        if (sync) {
+            awaitSync(gen, end);
+        }
+    }
+
+    // Seals the open segment and starts a new one; returns the sealed segment
+    public Path rotate() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                Path sealed = current;
+                channel.force(false);
+                channel.close();
+                open();
+                return sealed;
+            }
+        }
+    }
+
+    public synchronized String currentId() {
+        return currentId;
+    }
+
+    // Segments written before this journal was opened, oldest first
+    public List<Path> sealedSegments() {
+        return List.copyOf(recovered);
+    }
+
+    public void delete(Path segment) throws IOException {
+        Files.deleteIfExists(segment);
+    }
+
+    // Keeps a segment that cannot be applied for manual replay; it is no longer reported as sealed
+    public Path deadLetter(Path segment) throws IOException {
+        Path target = Files.createDirectories(dir.resolve(DEAD_LETTER_DIR)).resolve(segment.getFileName());
+        return Files.move(segment, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Null for a segment whose header never reached the disk; it holds no records either
+    public static String segmentId(Path segment) throws IOException {
+        String content = Files.readString(segment, StandardCharsets.UTF_8);
+        int end = content.indexOf('\n');
+        if (end < 0 || !content.startsWith(HEADER)) {
+            return null;
+        }
+        return content.substring(HEADER.length(), end);
+    }
+
+    // Complete records only: a torn last line from a crash mid-append is dropped
+    public static List<String> read(Path segment) throws IOException {
+        String content = Files.readString(segment, StandardCharsets.UTF_8);
+        int end = content.lastIndexOf('\n');
+        List<String> records = new ArrayList<>();
+        if (end < 0) {
+            return records;
+        }
+        for (String line : content.substring(0, end).split("\n")) {
+            if (!line.isEmpty() && !line.startsWith(HEADER)) {
+                records.add(line);
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+
+    // One force covers every record written before it started; a sealed segment was forced by rotate
+    private void awaitSync(long gen, long end) throws IOException {
+        synchronized (syncLock) {
+            if (syncedGeneration > gen || (syncedGeneration == gen && synced >= end)) {
+                return;
+            }
+            FileChannel open;
+            long upTo;
+            synchronized (this) {
+                if (generation != gen) {
+                    return;
+                }
+                open = channel;
+                upTo = written;
+            }
+            // Other appenders keep writing meanwhile; rotate and close wait for syncLock
+            open.force(false);
+            syncedGeneration = gen;
+            synced = upTo;
+        }
+    }
+
+    private void write(String record) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap((record + "\n").getBytes(StandardCharsets.UTF_8));
+        int length = buf.remaining();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        written += length;
+    }
+
+    private void open() throws IOException {
+        current = dir.resolve(String.format("%s-%012d%s", prefix, nextIndex++, SUFFIX));
+        currentId = UUID.randomUUID().toString();
+        channel = FileChannel.open(current, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        written = 0;
+        generation++;
+        write(HEADER + currentId);
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(prefix + "-"))
+                    .filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length() + 1, name.length() - SUFFIX.length()));
+    }
+}
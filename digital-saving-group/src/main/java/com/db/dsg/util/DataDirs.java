@@ -0,0 +1,27 @@
+package com.db.dsg.util;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Checks for directories whose contents must survive a restart (journals, resumable spools).
+ * The temp directory is refused: it is commonly a tmpfs or cleared on boot, which would
+ * silently drop whatever recovery depends on.
+ */
+public final class DataDirs {
+
+    private DataDirs() {
+    }
+
+    public static Path requireDurable(String dir, String property) {
+        if (dir == null || dir.isBlank()) {
+            throw new IllegalStateException(property + " must be set to a durable directory");
+        }
+        Path path = Paths.get(dir).toAbsolutePath().normalize();
+        Path tmp = Paths.get(System.getProperty("java.io.tmpdir")).toAbsolutePath().normalize();
+        if (path.startsWith(tmp)) {
+            throw new IllegalStateException(property + " must not be under the temp directory: " + path);
+        }
+        return path;
+    }
+}
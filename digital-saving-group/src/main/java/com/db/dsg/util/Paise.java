@@ -0,0 +1,25 @@
+package com.db.dsg.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversions between rupee amounts and integer paise, for code that does its arithmetic in
+ * longs (repayment schedules, the fund write-behind counters).
+ */
+public final class Paise {
+
+    private Paise() {
+    }
+
+    public static long of(BigDecimal amount) {
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most two decimal places: " + amount);
+        }
+    }
+
+    public static BigDecimal toRupees(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+}
@@ -0,0 +1,70 @@
+package com.db.dsg.util;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.UnitValue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Single-table PDF report written row by row. The table is added to the document in iText's
+ * large-table mode and flushed every {@link #FLUSH_EVERY} rows, so finished pages are written
+ * to the target stream and memory stays flat regardless of the row count.
+ * The target stream is not closed by {@link #close()}.
+ */
+public class PdfReportWriter implements Closeable {
+
+    private static final int FLUSH_EVERY = 200;
+
+    private final Document doc;
+    private final Table table;
+    private final Style cellStyle;
+    private int pendingRows;
+
+    public PdfReportWriter(OutputStream out, String title, float[] columnWidths, String... headers) throws IOException {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+
+        PdfFont regular = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        PdfFont bold = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        cellStyle = new Style().setFont(regular).setFontSize(9).setPadding(2);
+        Style headerStyle = new Style().setFont(bold).setFontSize(9).setPadding(2)
+                .setBackgroundColor(ColorConstants.LIGHT_GRAY);
+
+        doc = new Document(new PdfDocument(writer));
+        doc.add(new Paragraph(title).setFont(bold).setFontSize(14).setMarginBottom(10));
+
+        table = new Table(UnitValue.createPercentArray(columnWidths), true).useAllAvailableWidth();
+        for (String h : headers) {
+            table.addHeaderCell(new Cell().add(new Paragraph(h)).addStyle(headerStyle));
+        }
+        doc.add(table);
+    }
+
+    public void addRow(Object... values) {
+        for (Object v : values) {
+            table.addCell(new Cell().add(new Paragraph(v != null ? v.toString() : "-")).addStyle(cellStyle));
+        }
+        if (++pendingRows >= FLUSH_EVERY) {
+            table.flush();
+            pendingRows = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        table.complete();
+        doc.close();
+    }
+}
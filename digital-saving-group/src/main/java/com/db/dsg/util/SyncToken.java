@@ -0,0 +1,42 @@
+package com.db.dsg.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque delta-sync position, URL-safe Base64. Every change of a transaction below
+ * {@code fromTx} has been delivered. {@code toTx} is 0 between syncs; while a window of
+ * transactions is paged through it holds the window's end and {@code afterId} the last change
+ * delivered from it.
+ */
+public record SyncToken(long fromTx, long toTx, long afterId) {
+
+    public static SyncToken at(long fromTx) {
+        return new SyncToken(fromTx, 0, 0);
+    }
+
+    public boolean inWindow() {
+        return toTx != 0;
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((fromTx + ":" + toTx + ":" + afterId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SyncToken decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            SyncToken decoded = new SyncToken(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            if (decoded.fromTx < 0 || decoded.afterId < 0 || (decoded.inWindow() && decoded.toTx < decoded.fromTx)) {
+                throw new IllegalArgumentException();
+            }
+            return decoded;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.db.dsg;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base for tests that need the real database: the native upserts and watermark queries are
+ * PostgreSQL-only. One container is shared by every subclass (Spring starts it with the first
+ * context); the tests are skipped where Docker is not available.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"dsg.fund.snapshot.interval-ms=3600000",
+		"dsg.data-dir=target/test-data"
+})
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+
+	@ServiceConnection
+	static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+}
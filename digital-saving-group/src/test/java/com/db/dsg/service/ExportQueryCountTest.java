@@ -0,0 +1,123 @@
+package com.db.dsg.service;
+
+import com.db.dsg.PostgresIntegrationTest;
+import com.db.dsg.model.Group;
+import com.db.dsg.model.Loan;
+import com.db.dsg.model.LoanStatus;
+import com.db.dsg.model.Member;
+import com.db.dsg.model.SavingDeposit;
+import com.db.dsg.repository.GroupRepository;
+import com.db.dsg.repository.LoanApplicationRepository;
+import com.db.dsg.repository.MemberRepository;
+import com.db.dsg.repository.SavingDepositRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Exports read flat projection rows, so the number of statements must not grow with the number
+ * of members, deposits or loans exported.
+ */
+class ExportQueryCountTest extends PostgresIntegrationTest {
+
+	private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+	private static final LocalDate TO = LocalDate.of(2025, 12, 31);
+
+	@Autowired
+	private ExportService exportService;
+	@Autowired
+	private GroupRepository groupRepo;
+	@Autowired
+	private MemberRepository memberRepo;
+	@Autowired
+	private SavingDepositRepository depositRepo;
+	@Autowired
+	private LoanApplicationRepository loanRepo;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void enableStatistics() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+	}
+
+	@Test
+	void savingsExportsUseOneStatementWhateverTheSize() throws Exception {
+		Long small = seedGroup(2, 3);
+		Long large = seedGroup(40, 10);
+
+		assertEquals(statements(out -> exportService.writeSavingsCSV(small, FROM, TO, out)),
+				statements(out -> exportService.writeSavingsCSV(large, FROM, TO, out)));
+		assertEquals(statements(out -> exportService.writeSavingsPDF(small, FROM, TO, out)),
+				statements(out -> exportService.writeSavingsPDF(large, FROM, TO, out)));
+		assertEquals(1, statements(out -> exportService.writeSavingsCSV(large, FROM, TO, out)));
+	}
+
+	@Test
+	void repaymentExportsUseOneStatementWhateverTheSize() throws Exception {
+		Long small = seedGroup(2, 1);
+		Long large = seedGroup(40, 1);
+
+		assertEquals(statements(out -> exportService.writeRepaymentsCSV(small, FROM, TO, out)),
+				statements(out -> exportService.writeRepaymentsCSV(large, FROM, TO, out)));
+		assertEquals(statements(out -> exportService.writeRepaymentsPDF(small, FROM, TO, out)),
+				statements(out -> exportService.writeRepaymentsPDF(large, FROM, TO, out)));
+	}
+
+	private long statements(ExportService.ReportWriter export) throws Exception {
+		statistics.clear();
+		export.writeTo(OutputStream.nullOutputStream());
+		return statistics.getPrepareStatementCount();
+	}
+
+	// Members with deposits through the year and one repaid loan each
+	private Long seedGroup(int members, int depositsPerMember) {
+		Group group = new Group();
+		group.setName("Export group " + UUID.randomUUID());
+		group = groupRepo.save(group);
+
+		List<SavingDeposit> deposits = new ArrayList<>();
+		List<Loan> loans = new ArrayList<>();
+		for (int i = 0; i < members; i++) {
+			Member member = new Member();
+			member.setName("Member " + i);
+			member.setGroup(group);
+			member = memberRepo.save(member);
+			for (int d = 0; d < depositsPerMember; d++) {
+				SavingDeposit deposit = new SavingDeposit();
+				deposit.setMember(member);
+				deposit.setAmount(BigDecimal.valueOf(100 + d));
+				deposit.setDate(FROM.plusDays(d * 7L));
+				deposits.add(deposit);
+			}
+			Loan loan = new Loan();
+			loan.setMember(member);
+			loan.setGroupId(group.getId());
+			loan.setAmount(BigDecimal.valueOf(1000));
+			loan.setRemainingBalance(BigDecimal.ZERO);
+			loan.setStatus(LoanStatus.REPAID);
+			loan.setApplicationDate(FROM);
+			loan.setDisbursementDate(FROM.plusDays(3));
+			loan.setRepaymentDate(FROM.plusMonths(6));
+			loans.add(loan);
+		}
+		depositRepo.saveAll(deposits);
+		loanRepo.saveAll(loans);
+		return group.getId();
+	}
+}
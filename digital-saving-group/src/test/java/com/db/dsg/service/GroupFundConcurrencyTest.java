@@ -0,0 +1,130 @@
+package com.db.dsg.service;
+
+import com.db.dsg.PostgresIntegrationTest;
+import com.db.dsg.model.FundEntryType;
+import com.db.dsg.model.Group;
+import com.db.dsg.model.GroupFund;
+import com.db.dsg.repository.GroupFundRepository;
+import com.db.dsg.repository.GroupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads moving money in and out of one fund while snapshots fold the ledger: no update
+ * may be lost or counted twice, and the stored row must end up matching the computed balance.
+ */
+class GroupFundConcurrencyTest extends PostgresIntegrationTest {
+
+	private static final int THREADS = 16;
+	private static final int OPS_PER_THREAD = 250;
+
+	@Autowired
+	private GroupFundService fundService;
+	@Autowired
+	private GroupRepository groupRepo;
+	@Autowired
+	private GroupFundRepository fundRepo;
+
+	@Test
+	void concurrentMovementsKeepTheExactBalance() throws Exception {
+		Long groupId = seedFund(BigDecimal.valueOf(1000));
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+		List<Future<?>> tasks = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			tasks.add(pool.submit(() -> {
+				for (int i = 0; i < OPS_PER_THREAD; i++) {
+					if (i % 2 == 0) {
+						fundService.addToFund(groupId, BigDecimal.valueOf(3), FundEntryType.DEPOSIT);
+					} else {
+						fundService.subtractFromFund(groupId, BigDecimal.ONE, FundEntryType.DISBURSEMENT);
+					}
+				}
+			}));
+		}
+		tasks.add(pool.submit(() -> {
+			for (int i = 0; i < 20; i++) {
+				fundService.snapshotPendingEntries();
+			}
+		}));
+		for (Future<?> task : tasks) {
+			task.get();
+		}
+		pool.shutdown();
+
+		int ops = THREADS * OPS_PER_THREAD;
+
+		// Each pair of operations adds 3 and takes 1
+		BigDecimal expected = BigDecimal.valueOf(1000 + ops);
+		assertEquals(0, expected.compareTo(fundService.getBalance(groupId)));
+
+		fundService.snapshotPendingEntries();
+		GroupFund stored = fundRepo.findByGroup_Id(groupId).orElseThrow();
+		assertEquals(0, expected.compareTo(stored.getBalance()));
+	}
+
+	// Deposits only, so the committed balance never goes down: a read taking the fund row before a
+	// snapshot commits and the pending sum after it would come out short and break the order
+	@Test
+	void readsRacingSnapshotsNeverMissFoldedEntries() throws Exception {
+		Long groupId = seedFund(BigDecimal.ZERO);
+		int deposits = 2000;
+		AtomicBoolean writing = new AtomicBoolean(true);
+
+		ExecutorService pool = Executors.newFixedThreadPool(3);
+		Future<?> writer = pool.submit(() -> {
+			try {
+				for (int i = 0; i < deposits; i++) {
+					fundService.addToFund(groupId, BigDecimal.ONE, FundEntryType.DEPOSIT);
+				}
+			} finally {
+				writing.set(false);
+			}
+		});
+		Future<?> snapshots = pool.submit(() -> {
+			while (writing.get()) {
+				fundService.snapshotPendingEntries();
+			}
+		});
+		Future<Integer> reader = pool.submit(() -> {
+			BigDecimal previous = BigDecimal.ZERO;
+			int reads = 0;
+			while (writing.get()) {
+				BigDecimal balance = fundService.getBalance(groupId);
+				assertTrue(balance.compareTo(previous) >= 0, "balance went from " + previous + " to " + balance);
+				previous = balance;
+				reads++;
+			}
+			return reads;
+		});
+		writer.get();
+		snapshots.get();
+		assertTrue(reader.get() > 0);
+		pool.shutdown();
+
+		assertEquals(0, BigDecimal.valueOf(deposits).compareTo(fundService.getBalance(groupId)));
+	}
+
+	private Long seedFund(BigDecimal balance) {
+		Group group = new Group();
+		group.setName("Fund group " + UUID.randomUUID());
+		group = groupRepo.save(group);
+		GroupFund fund = new GroupFund();
+		fund.setGroup(group);
+		fund.setBalance(balance);
+		fundRepo.save(fund);
+		return group.getId();
+	}
+}
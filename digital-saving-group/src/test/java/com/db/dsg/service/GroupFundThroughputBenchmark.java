@@ -0,0 +1,72 @@
+package com.db.dsg.service;
+
+import com.db.dsg.PostgresIntegrationTest;
+import com.db.dsg.model.FundEntryType;
+import com.db.dsg.model.Group;
+import com.db.dsg.model.GroupFund;
+import com.db.dsg.repository.GroupFundRepository;
+import com.db.dsg.repository.GroupRepository;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fund movements on one group from a growing number of threads; prints throughput per thread count.
+ * Run with: ./mvnw test -Dtest=GroupFundThroughputBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class GroupFundThroughputBenchmark extends PostgresIntegrationTest {
+
+	private static final int OPS_PER_THREAD = 500;
+
+	@Autowired
+	private GroupFundService fundService;
+	@Autowired
+	private GroupRepository groupRepo;
+	@Autowired
+	private GroupFundRepository fundRepo;
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 4, 16})
+	void fundMovements(int threads) throws Exception {
+		Group group = new Group();
+		group.setName("Benchmark group " + UUID.randomUUID());
+		group = groupRepo.save(group);
+		GroupFund fund = new GroupFund();
+		fund.setGroup(group);
+		fund.setBalance(BigDecimal.ZERO);
+		fundRepo.save(fund);
+		Long groupId = group.getId();
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<?>> tasks = new ArrayList<>();
+		long start = System.nanoTime();
+		for (int t = 0; t < threads; t++) {
+			tasks.add(pool.submit(() -> {
+				for (int i = 0; i < OPS_PER_THREAD; i++) {
+					fundService.addToFund(groupId, BigDecimal.ONE, FundEntryType.DEPOSIT);
+				}
+			}));
+		}
+		for (Future<?> task : tasks) {
+			task.get();
+		}
+		long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+		pool.shutdown();
+
+		int ops = threads * OPS_PER_THREAD;
+		System.out.printf("threads=%d ops=%d time=%dms throughput=%.0f ops/s%n", threads, ops, millis, ops * 1000.0 / millis);
+		assertEquals(0, BigDecimal.valueOf(ops).compareTo(fundService.getBalance(groupId)));
+	}
+}
@@ -0,0 +1,69 @@
+package com.db.dsg.service;
+
+import com.db.dsg.dtos.MonthlySavingPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SavingRollupFillTest {
+
+	private static final YearMonth JAN = YearMonth.of(2024, 1);
+
+	@Test
+	void monthsWithoutDepositsBecomeZeroPoints() {
+		MonthlySavingPoint feb = new MonthlySavingPoint(JAN.plusMonths(1), BigDecimal.valueOf(500), 2);
+		MonthlySavingPoint apr = new MonthlySavingPoint(JAN.plusMonths(3), BigDecimal.valueOf(300), 1);
+
+		List<MonthlySavingPoint> series = SavingRollupService.fill(JAN, JAN.plusMonths(4), List.of(feb, apr));
+
+		assertEquals(5, series.size());
+		for (int i = 0; i < series.size(); i++) {
+			assertEquals(JAN.plusMonths(i), series.get(i).getMonth());
+		}
+		assertZero(series.get(0));
+		assertEquals(feb, series.get(1));
+		assertZero(series.get(2));
+		assertEquals(apr, series.get(3));
+		assertZero(series.get(4));
+	}
+
+	@Test
+	void rowsOnBothEndsAreKept() {
+		MonthlySavingPoint first = new MonthlySavingPoint(JAN, BigDecimal.TEN, 1);
+		MonthlySavingPoint last = new MonthlySavingPoint(JAN.plusMonths(2), BigDecimal.ONE, 1);
+
+		List<MonthlySavingPoint> series = SavingRollupService.fill(JAN, JAN.plusMonths(2), List.of(first, last));
+
+		assertEquals(3, series.size());
+		assertEquals(first, series.get(0));
+		assertZero(series.get(1));
+		assertEquals(last, series.get(2));
+	}
+
+	@Test
+	void seriesCrossesTheYearBoundary() {
+		YearMonth nov = YearMonth.of(2023, 11);
+
+		List<MonthlySavingPoint> series = SavingRollupService.fill(nov, JAN, List.of());
+
+		assertEquals(List.of(nov, nov.plusMonths(1), JAN), series.stream().map(MonthlySavingPoint::getMonth).toList());
+		series.forEach(SavingRollupFillTest::assertZero);
+	}
+
+	@Test
+	void singleMonthWithoutRows() {
+		List<MonthlySavingPoint> series = SavingRollupService.fill(JAN, JAN, List.of());
+
+		assertEquals(1, series.size());
+		assertZero(series.get(0));
+	}
+
+	private static void assertZero(MonthlySavingPoint point) {
+		assertEquals(0, BigDecimal.ZERO.compareTo(point.getTotalDeposited()));
+		assertEquals(0, point.getDepositCount());
+	}
+}
@@ -0,0 +1,40 @@
+package com.db.dsg.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AmortizationTest {
+
+	@Test
+	void reducingBalanceScheduleMatchesEmiAndRepaysPrincipalExactly() {
+		long[] principal = new long[12];
+		long[] interest = new long[12];
+		Amortization.schedule(10_000_000, 1200, 12, principal, interest);
+
+		assertEquals(888_488, Amortization.emi(10_000_000, 1200, 12));
+		assertEquals(100_000, interest[0]);
+		assertEquals(788_488, principal[0]);
+		long principalTotal = 0;
+		long interestTotal = 0;
+		for (int i = 0; i < 12; i++) {
+			principalTotal += principal[i];
+			interestTotal += interest[i];
+		}
+		assertEquals(10_000_000, principalTotal);
+		assertEquals(661_853, interestTotal);
+		assertEquals(888_485, principal[11] + interest[11]);
+	}
+
+	@Test
+	void zeroRateSplitsPrincipalEvenlyWithRemainderLast() {
+		long[] principal = new long[3];
+		long[] interest = new long[3];
+		Amortization.schedule(1_000, 0, 3, principal, interest);
+
+		assertEquals(334, principal[0]);
+		assertEquals(334, principal[1]);
+		assertEquals(332, principal[2]);
+		assertEquals(0, interest[0] + interest[1] + interest[2]);
+	}
+}
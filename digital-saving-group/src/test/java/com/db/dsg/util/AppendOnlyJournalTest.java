@@ -0,0 +1,85 @@
+package com.db.dsg.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppendOnlyJournalTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void rotatedSegmentHoldsRecordsWrittenBeforeRotation() throws Exception {
+		try (AppendOnlyJournal journal = new AppendOnlyJournal(dir, "fund", false)) {
+			journal.append("1,DEPOSIT,100");
+			journal.append("1,LOSS,-25");
+			Path sealed = journal.rotate();
+			journal.append("2,DEPOSIT,50");
+
+			assertEquals(List.of("1,DEPOSIT,100", "1,LOSS,-25"), AppendOnlyJournal.read(sealed));
+		}
+	}
+
+	@Test
+	void reopenedJournalReportsLeftoverSegmentsAndDropsTornRecord() throws Exception {
+		Path leftover;
+		try (AppendOnlyJournal journal = new AppendOnlyJournal(dir, "fund", true)) {
+			journal.append("1,DEPOSIT,100");
+			leftover = journal.rotate();
+		}
+		Files.writeString(leftover, "2,REPAY", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+		try (AppendOnlyJournal reopened = new AppendOnlyJournal(dir, "fund", true)) {
+			List<Path> sealed = reopened.sealedSegments();
+			assertEquals(2, sealed.size());
+			assertEquals(leftover, sealed.get(0));
+			assertEquals(List.of("1,DEPOSIT,100"), AppendOnlyJournal.read(leftover));
+			assertTrue(AppendOnlyJournal.read(sealed.get(1)).isEmpty());
+
+			reopened.delete(leftover);
+			assertTrue(Files.notExists(leftover));
+		}
+	}
+
+	@Test
+	void concurrentSyncedAppendsAllReachTheSegment() throws Exception {
+		int threads = 8;
+		int perThread = 200;
+		try (AppendOnlyJournal journal = new AppendOnlyJournal(dir, "audit", true)) {
+			ExecutorService pool = Executors.newFixedThreadPool(threads);
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int thread = t;
+				tasks.add(pool.submit(() -> {
+					for (int i = 0; i < perThread; i++) {
+						journal.append(thread + "," + i);
+					}
+					return null;
+				}));
+			}
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+			pool.shutdown();
+			Path sealed = journal.rotate();
+
+			List<String> records = AppendOnlyJournal.read(sealed);
+			assertEquals(threads * perThread, records.size());
+			assertEquals(threads * perThread, new HashSet<>(records).size());
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package com.db.dsg.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+	@Test
+	void roundTripsDateAndId() {
+		KeysetCursor cursor = new KeysetCursor(LocalDate.of(2024, 3, 31), 1_234_567L);
+
+		assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+	}
+
+	@Test
+	void rejectsTamperedCursors() {
+		assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor"));
+		assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("MjAyNC0wMy0zMQ"));
+	}
+}
@@ -0,0 +1,19 @@
+package com.db.dsg.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PaiseTest {
+
+	@Test
+	void conversionRejectsFractionalPaise() {
+		assertEquals(12_345, Paise.of(new BigDecimal("123.45")));
+		assertEquals(-2_500, Paise.of(new BigDecimal("-25")));
+		assertEquals(new BigDecimal("123.45"), Paise.toRupees(12_345));
+		assertThrows(IllegalArgumentException.class, () -> Paise.of(new BigDecimal("1.005")));
+	}
+}
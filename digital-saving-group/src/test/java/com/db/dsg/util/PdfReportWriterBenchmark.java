@@ -0,0 +1,55 @@
+package com.db.dsg.util;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Renders synthetic savings reports to a temp file and prints wall time and peak heap.
+ * Run with: ./mvnw test -Dtest=PdfReportWriterBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PdfReportWriterBenchmark {
+
+	@ParameterizedTest
+	@ValueSource(ints = {10_000, 100_000, 1_000_000})
+	void savingsReport(int rows) throws Exception {
+		List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+				.filter(p -> p.getType() == MemoryType.HEAP)
+				.toList();
+		System.gc();
+		heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+		Path file = Files.createTempFile("savings-benchmark-", ".pdf");
+		long start = System.nanoTime();
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file));
+			 PdfReportWriter pdf = new PdfReportWriter(out, "Benchmark Savings Report",
+					 new float[]{2, 2, 2, 4}, "Member", "Amount", "Date", "Description")) {
+			LocalDate date = LocalDate.of(2025, 1, 1);
+			for (int i = 0; i < rows; i++) {
+				pdf.addRow("Member " + (i % 60), BigDecimal.valueOf(100 + i % 900), date.plusDays(i % 365), "Monthly saving");
+			}
+		}
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		long peakHeapMb = heapPools.stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum() / (1024 * 1024);
+
+		System.out.printf("rows=%d time=%dms peakHeap=%dMB size=%dKB%n",
+				rows, millis, peakHeapMb, Files.size(file) / 1024);
+		assertTrue(Files.size(file) > 0);
+		Files.deleteIfExists(file);
+	}
+
+}
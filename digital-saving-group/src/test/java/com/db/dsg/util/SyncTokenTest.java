@@ -0,0 +1,27 @@
+package com.db.dsg.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SyncTokenTest {
+
+	@Test
+	void roundTripsPositionsInAndBetweenWindows() {
+		SyncToken paging = new SyncToken(7_000_123L, 7_000_456L, 98_765L);
+		SyncToken settled = SyncToken.at(7_000_456L);
+
+		assertEquals(paging, SyncToken.decode(paging.encode()));
+		assertEquals(settled, SyncToken.decode(settled.encode()));
+		assertFalse(settled.inWindow());
+	}
+
+	@Test
+	void rejectsTamperedTokens() {
+		assertThrows(IllegalArgumentException.class, () -> SyncToken.decode("not a token"));
+		assertThrows(IllegalArgumentException.class, () -> SyncToken.decode(new SyncToken(10, 5, 0).encode()));
+		assertThrows(IllegalArgumentException.class, () -> SyncToken.decode(new SyncToken(-1, 0, 0).encode()));
+	}
+}